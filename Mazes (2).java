@@ -1,7 +1,25 @@
 import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import javalib.impworld.World;
 import javalib.impworld.WorldScene;
 import javalib.worldimages.*;
@@ -31,39 +49,50 @@ class StringLenThree implements IPred<String> {
 // class for Deque structure
 class Deque<T> {
     Sentinel<T> header;
+    // the number of nodes, kept up to date by this Deque's methods
+    int count;
 
+    // counts the nodes already linked to the header once
     Deque(Sentinel<T> header) {
         this.header = header;
+        this.count = header.size();
     }
 
     Deque() {
         this.header = new Sentinel<T>();
+        this.count = 0;
     }
 
     // that counts the number of nodes in a list Deque, not including the header
     // node.
     int size() {
-        return header.size();
+        return this.count;
     }
 
     // consumes a value of type T and inserts it at the front of the list.
     void addAtHead(T content) {
         header.addAtHead(content);
+        this.count += 1;
     }
 
     // consumes a value of type T and inserts it at the tail of this list
     void addAtTail(T content) {
         header.addAtTail(content);
+        this.count += 1;
     }
 
     // removes the first node from this Deque.
     T removeFromHead() {
-        return header.removeFromHead();
+        T content = header.removeFromHead();
+        this.count -= 1;
+        return content;
     }
 
     // removes the last node from this Deque.
     T removeFromTail() {
-        return header.removeFromTail();
+        T content = header.removeFromTail();
+        this.count -= 1;
+        return content;
     }
 
     // takes an IPred<T> and produces the first node in this
@@ -75,7 +104,9 @@ class Deque<T> {
     // removes the given node from this Deque.
     // If the given node is the Sentinel header, the method does nothing.
     void removeNode(ANode<T> arg) {
-        header.removeNode(arg);
+        if (header.removeNode(arg)) {
+            this.count -= 1;
+        }
     }
 
     // prints the deque
@@ -161,8 +192,9 @@ abstract class ANode<T> {
 
     // nodeRemover method to be used by Sentinel
     // since we don't want that being removed
-    void nodeRemover(ANode<T> arg) {
-        // necessary to keep
+    // returns whether a node was removed
+    boolean nodeRemover(ANode<T> arg) {
+        return false;
     }
 
 }
@@ -206,8 +238,9 @@ class Sentinel<T> extends ANode<T> {
     }
 
     // EFFECT: removes arg node from list, or nothing
-    void removeNode(ANode<T> arg) {
-        this.next.nodeRemover(arg);
+    // returns whether arg was removed
+    boolean removeNode(ANode<T> arg) {
+        return this.next.nodeRemover(arg);
     }
 
     // debugging
@@ -246,14 +279,15 @@ class Node<T> extends ANode<T> {
     }
 
     // removes the node
-    void nodeRemover(ANode<T> arg) {
+    boolean nodeRemover(ANode<T> arg) {
         if (this.equals(arg)) {
             this.prev.next = this.next;
             this.next.prev = this.prev;
+            return true;
         }
 
         else {
-            this.next.nodeRemover(arg);
+            return this.next.nodeRemover(arg);
         }
     }
 
@@ -264,698 +298,3117 @@ class Node<T> extends ANode<T> {
 
 }
 
-// maze code
-// to represent a graph vertex
-class Vertex {
-    // this vertex's original representative
-    int itself;
-    // x coordinate
-    int x;
-    // y coordinate
-    int y;
-    // allows the game to be played at different sizes
-    public static final int CELL_SIZE = 10;
+// a deque of ints kept in a ring buffer that doubles when full, so pushing
+// an int allocates nothing
+class IntDeque {
+    // the buffer, holding count items starting at head and wrapping around
+    int[] items;
+    // where the first item is
+    int head;
+    // the number of items
+    int count;
+
+    IntDeque(int capacity) {
+        this.items = new int[Math.max(capacity, 1)];
+        this.head = 0;
+        this.count = 0;
+    }
+
+    IntDeque() {
+        this(16);
+    }
+
+    // returns the number of items in this deque
+    int size() {
+        return this.count;
+    }
 
-    Vertex(int itself, int x, int y) {
-        this.itself = itself;
-        this.x = x;
-        this.y = y;
+    // EFFECT: inserts the item at the front of this deque
+    void addAtHead(int item) {
+        this.ensureRoom();
+        this.head = (this.head + this.items.length - 1) % this.items.length;
+        this.items[this.head] = item;
+        this.count += 1;
     }
 
-    // checks if this vertex is smaller than the int passed in
-    boolean smallerThan(int other) {
-        return this.itself < other;
+    // EFFECT: inserts the item at the tail of this deque
+    void addAtTail(int item) {
+        this.ensureRoom();
+        this.items[(this.head + this.count) % this.items.length] = item;
+        this.count += 1;
     }
 
-    // checks if there should be a wall here
-    boolean wallCheck(int x, int y, int other) {
-        return (this.x == x) && (this.y == y) && (this.itself > other);
+    // EFFECT: removes the first item from this deque and returns it
+    int removeFromHead() {
+        if (this.count == 0) {
+            throw new RuntimeException("Can't remove head of empty list");
+        }
+        int item = this.items[this.head];
+        this.head = (this.head + 1) % this.items.length;
+        this.count -= 1;
+        return item;
     }
 
-    // checks if there is a connection between the vertices
-    boolean connection(int other, int width) {
-        return (this.itself + width == other) || (this.itself - width == other);
+    // EFFECT: removes the last item from this deque and returns it
+    int removeFromTail() {
+        if (this.count == 0) {
+            throw new RuntimeException("Can't remove tail of empty list");
+        }
+        this.count -= 1;
+        return this.items[(this.head + this.count) % this.items.length];
     }
 
-    // checks if there should be a horizontal wall
-    boolean noRightWall(int x, int y, int width, Vertex other) {
-        return (((this.x == x) && (this.y == y) && other.smallerThan(this.itself))
-                || other.wallCheck(x, y, this.itself)) && other.connection(this.itself, width);
+    // EFFECT: removes every item from this deque, keeping the buffer
+    void clear() {
+        this.head = 0;
+        this.count = 0;
     }
 
-    // checks if there should be a vertical wall
-    boolean noDownWall(int x, int y, Vertex other) {
-        return (((this.x == x) && (this.y == y) && other.smallerThan(this.itself))
-                || other.wallCheck(x, y, this.itself)) && other.connection(this.itself, 1);
+    // EFFECT: doubles the buffer, unwrapping the items, if it is full
+    void ensureRoom() {
+        if (this.count == this.items.length) {
+            int[] bigger = new int[this.items.length * 2];
+            for (int i = 0; i < this.count; i += 1) {
+                bigger[i] = this.items[(this.head + i) % this.items.length];
+            }
+            this.items = bigger;
+            this.head = 0;
+        }
     }
 }
 
-// to represent an edge in the graph
-class Edge implements Comparable<Edge> {
-    // the weight of this edge
-    double weight;
-    // the first vertex in the edge
-    Vertex vertex1;
-    // the second vertex in the edge
-    Vertex vertex2;
+// a binary min heap of int items ordered by long keys, kept in two
+// parallel arrays so that pushing and popping allocate nothing
+class IntHeap {
+    // the keys, keys[i] is never smaller than keys[(i - 1) / 2]
+    long[] keys;
+    // the item each key belongs to
+    int[] items;
+    // the number of items
+    int count;
+
+    IntHeap(int capacity) {
+        this.keys = new long[Math.max(capacity, 1)];
+        this.items = new int[Math.max(capacity, 1)];
+        this.count = 0;
+    }
 
-    Edge(Vertex vertex1, Vertex vertex2) {
-        this.weight = Math.random();
-        this.vertex1 = vertex1;
-        this.vertex2 = vertex2;
+    // returns the number of items in this heap
+    int size() {
+        return this.count;
     }
 
-    // returns the weight of this vertex
-    double getWeight() {
-        return this.weight;
+    // EFFECT: adds the item with the given key
+    void push(int item, long key) {
+        if (this.count == this.items.length) {
+            this.keys = Arrays.copyOf(this.keys, this.count * 2);
+            this.items = Arrays.copyOf(this.items, this.count * 2);
+        }
+        int i = this.count;
+        this.count += 1;
+        while (i > 0 && this.keys[(i - 1) / 2] > key) {
+            this.keys[i] = this.keys[(i - 1) / 2];
+            this.items[i] = this.items[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        this.keys[i] = key;
+        this.items[i] = item;
     }
 
-    // checks if there should not be a horizontal wall
-    boolean noRightWall(int x, int y, int width) {
-        return this.vertex1.noRightWall(x, y, width, this.vertex2);
+    // EFFECT: removes the item with the smallest key and returns it
+    int pop() {
+        if (this.count == 0) {
+            throw new RuntimeException("Can't pop an empty heap");
+        }
+        int top = this.items[0];
+        this.count -= 1;
+        long key = this.keys[this.count];
+        int item = this.items[this.count];
+        int i = 0;
+        while (i * 2 + 1 < this.count) {
+            int child = i * 2 + 1;
+            if (child + 1 < this.count && this.keys[child + 1] < this.keys[child]) {
+                child += 1;
+            }
+
+            if (this.keys[child] >= key) {
+                break;
+            }
+            this.keys[i] = this.keys[child];
+            this.items[i] = this.items[child];
+            i = child;
+        }
+        this.keys[i] = key;
+        this.items[i] = item;
+        return top;
     }
+}
 
-    // checks if there should not be a vertical wall
-    boolean noDownWall(int x, int y) {
-        return this.vertex1.noDownWall(x, y, this.vertex2);
+// maze code
+// to represent disjoint sets of vertices, by their itself number
+class UnionFind {
+    // the parent of each element, roots are their own parent
+    int[] parent;
+    // upper bound on the height of each root's tree
+    byte[] rank;
+
+    UnionFind(int size) {
+        this.parent = new int[size];
+        this.rank = new byte[size];
+        for (int i = 0; i < size; i += 1) {
+            this.parent[i] = i;
+        }
     }
 
-    // used to sort the arrayList by edge weights
-    public int compareTo(Edge other) {
-        if (this.getWeight() < other.getWeight()) {
-            return -1;
-        } 
-        
-        else if (this.getWeight() > other.getWeight()) {
-            return 1;
-        } 
-        
-        else {
-            return 0;
+    // returns the root of i's set
+    // EFFECT: points every other node on the way at its grandparent
+    int find(int i) {
+        int rep = i;
+        while (this.parent[rep] != rep) {
+            this.parent[rep] = this.parent[this.parent[rep]];
+            rep = this.parent[rep];
+        }
+        return rep;
+    }
+
+    // EFFECT: puts every element back in a set of its own
+    void reset() {
+        for (int i = 0; i < this.parent.length; i += 1) {
+            this.parent[i] = i;
+            this.rank[i] = 0;
         }
     }
 
-    // checks if they are the same vertices
-    boolean sameVerticies(Vertex that1, Vertex that2) {
-        return (this.vertex1.equals(that1) && this.vertex2.equals(that2));
+    // EFFECT: merges the sets of a and b, hanging the lower ranked root under
+    // the other one, or a's root under b's when the ranks are equal
+    // returns true if a and b were in different sets
+    boolean union(int a, int b) {
+        int rootA = this.find(a);
+        int rootB = this.find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+
+        else if (this.rank[rootA] > this.rank[rootB]) {
+            this.parent[rootB] = rootA;
+        }
+
+        else {
+            this.parent[rootA] = rootB;
+            if (this.rank[rootA] == this.rank[rootB]) {
+                this.rank[rootB] += 1;
+            }
+        }
+        return true;
     }
 }
 
-// to represent a maze
-class Maze extends World {
-    // current position of player 1
-    int playerx = 0;
-    int playery = 0;
-    // current position of player 2
-    int player2x = this.width - 1;
-    int player2y = 0;
-    // the hashmap for the representatives of the vertices
-    HashMap<Integer, Integer> representatives = new HashMap<Integer, Integer>();
-    // ArrayList holding all vertecies
-    ArrayList<Vertex> allVertex = new ArrayList<Vertex>();
-    // layout of maze by Vertex
-    ArrayList<ArrayList<Vertex>> vertGrid = new ArrayList<ArrayList<Vertex>>();
-    // the edges in the MST
-    ArrayList<Edge> edgesInTree;
-    // the edges that still need to be checked for their placement in the tree
-    ArrayList<Edge> workList;
+// to represent which walls of a maze are open, two bits per cell, whether
+// the bits are held in memory or mapped from a file, without any way to
+// change them
+// cells are numbered y * width + x, and each cell only records whether it
+// is open to the east and to the south, since its north and west walls are
+// the south and east walls of its neighbours
+abstract class AGrid {
+    // flag for an opening into the cell above
+    static final byte NORTH = 1;
+    // flag for an opening into the cell to the right
+    static final byte EAST = 2;
+    // flag for an opening into the cell below
+    static final byte SOUTH = 4;
+    // flag for an opening into the cell to the left
+    static final byte WEST = 8;
+    // every direction, in the order searches try them
+    static final byte[] DIRECTIONS = {NORTH, EAST, SOUTH, WEST};
     // the length of the maze
     int length;
     // the width of the maze
     int width;
-    // searching booleans
-    boolean depthActivated = false;
-    // trail for depth
-    ArrayList<Vertex> depthTrail = new ArrayList<Vertex>();
-    // counter for depth
-    int depthCounter = 0;
-    // searching for breadth
-    boolean breadthActivated = false;
-    // trail for breadth
-    ArrayList<Vertex> breadthTrail = new ArrayList<Vertex>();
-    // counter for breadth
-    int breadthCounter = 0;
-    // show solution or not
-    boolean showSolution = false;
-    // solution trail
-    ArrayList<Vertex> solution = new ArrayList<Vertex>();
-    // player 1 trail
-    ArrayList<Posn> trail = new ArrayList<Posn>();
-    // player 2 trail
-    ArrayList<Posn> trail2 = new ArrayList<Posn>();
-    // show path toggle
-    boolean showPath = true;
-    // player 2 present
-    boolean player2 = false;
-
-    Maze(int length, int width) {
-        this.length = length;
-        this.width = width;
-        this.vertGrid = this.makeVertices();
-        this.initWorkList();
-        this.makeTree();
-    }
 
-    // Constructor only used to test methods inside real constructor
-    Maze(int length, int width, String forTest) {
+    AGrid(int length, int width) {
         this.length = length;
         this.width = width;
-        this.edgesInTree = new ArrayList<Edge>();
-        this.workList = new ArrayList<Edge>();
     }
 
-    // EFFECT: creates a new Maze
-    void mazeGen(int length, int width, boolean player2) {
-        this.length = length;
-        this.width = width;
-        this.playerx = 0;
-        this.playery = 0;
-        this.player2x = this.width - 1;
-        this.player2y = 0;
-        this.trail = new ArrayList<Posn>();
-        this.trail2 = new ArrayList<Posn>();
-        this.player2 = player2;
-        this.depthActivated = false;
-        this.depthTrail = new ArrayList<Vertex>();
-        this.depthCounter = 0;
-        this.breadthActivated = false;
-        this.breadthTrail = new ArrayList<Vertex>();
-        this.breadthCounter = 0;
-        this.showSolution = false;
-        this.solution = new ArrayList<Vertex>();
-        this.representatives = new HashMap<Integer, Integer>();
-        this.allVertex = new ArrayList<Vertex>();
-        this.vertGrid = new ArrayList<ArrayList<Vertex>>();
-        this.vertGrid = this.makeVertices();
-        this.initWorkList();
-        this.makeTree();
-
-    }
-
-    // makes all the vertices in the graph
-    //
-    // EFFECT: assigns a list of all Verticies present in Graph to AllVertex
-    ArrayList<ArrayList<Vertex>> makeVertices() {
-        ArrayList<ArrayList<Vertex>> vertices = new ArrayList<ArrayList<Vertex>>();
-        int itself = 0;
-        for (int y = 0; y < this.length; y += 1) {
-            ArrayList<Vertex> temp = new ArrayList<Vertex>();
-            for (int x = 0; x < this.width; x += 1) {
-                temp.add(new Vertex(itself, x, y));
-                this.representatives.put(itself, itself);
-                itself += 1;
-            }
-            vertices.add(temp);
-            // only added code
-            allVertex.addAll(temp);
-        }
-        return vertices;
-    }
-
-    // EFFECT: makes the list of edges in the graph
-    void initWorkList() {
-        this.workList = new ArrayList<Edge>();
-
-        for (int y = 0; y < this.length; y += 1) {
-            for (int x = 0; x < this.width; x += 1) {
-                if (x > 0) {
-                    this.workList.add(new Edge(this.vertGrid.get(y).get(x - 1), 
-                            this.vertGrid.get(y).get(x)));
-                }
-
-                if (x < this.width - 1) {
-                    this.workList.add(new Edge(this.vertGrid.get(y).get(x + 1), 
-                            this.vertGrid.get(y).get(x)));
-                }
+    // checks if the given bit of the cell's pair is set, bit 0 for the east
+    // wall and bit 1 for the south wall
+    abstract boolean bit(int cell, int which);
 
-                if (y > 0) {
-                    this.workList.add(new Edge(this.vertGrid.get(y - 1).get(x), 
-                            this.vertGrid.get(y).get(x)));
-                }
+    // returns the packed passage bits, four cells to a byte with the east bit
+    // of cell i at bit 2 * (i % 4) of byte i / 4 and its south bit above it,
+    // as a buffer holding exactly packedSize() bytes
+    abstract ByteBuffer packedBits();
 
-                if (y < this.length - 1) {
-                    this.workList.add(new Edge(this.vertGrid.get(y + 1).get(x), 
-                            this.vertGrid.get(y).get(x)));
-                }
-            }
-        }
-        Collections.sort(this.workList);
+    // returns the number of bytes the packed passage bits take
+    int packedSize() {
+        return (this.size() + 3) / 4;
     }
 
-    // EFFECT: makes the spanning tree
-    void makeTree() {
-        this.edgesInTree = new ArrayList<Edge>();
-
-        while (this.workList.size() > 0) {
-            Edge temp = this.workList.get(0);
-            this.workList.remove(0);
+    // returns the number of cells in the maze
+    int size() {
+        return this.length * this.width;
+    }
 
-            if (this.find(temp.vertex1) != (this.find(temp.vertex2))) {
-                this.edgesInTree.add(temp);
-                this.union(temp.vertex1, temp.vertex2);
-            }
-        }
+    // returns the number of the cell at x, y
+    int index(int x, int y) {
+        return y * this.width + x;
     }
 
-    // EFFECT: sets the first representative to the second's representative
-    void union(Vertex v1, Vertex v2) {
-        this.representatives.put(this.find(v1), this.find(v2));
+    // returns the number of walls between neighbouring cells
+    int edgeCount() {
+        return (this.width - 1) * this.length + this.width * (this.length - 1);
     }
 
-    // returns v's representative
-    int find(Vertex v) {
-        int rep = v.itself;
-        boolean moreReps = true;
-        while (moreReps) {
-            rep = this.representatives.get(rep);
-            moreReps = this.representatives.get(rep) != rep;
+    // returns the cell across the given edge from cell edge / 2, edges are
+    // numbered 2 * cell for the east wall and 2 * cell + 1 for the south wall
+    int across(int edge) {
+        if ((edge & 1) == 0) {
+            return (edge >> 1) + 1;
         }
-        return rep;
-    }
 
-    // returns v's father
-    int findParent(Vertex v) {
-        int rep = v.itself;
-        return this.representatives.get(rep);
+        else {
+            return (edge >> 1) + this.width;
+        }
     }
 
-    // checks if a horizontal wall should be added
-    boolean addRightWall(int x, int y) {
-        boolean add = true;
+    // checks if the given cell is open in the given direction
+    boolean isOpen(int cell, byte direction) {
+        if (direction == EAST) {
+            return this.bit(cell, 0);
+        }
 
-        for (Edge edge : this.edgesInTree) {
-            if (edge.noRightWall(x, y, this.width)) {
-                add = false;
-            }
+        else if (direction == SOUTH) {
+            return this.bit(cell, 1);
+        }
+
+        else if (direction == NORTH) {
+            return cell >= this.width && this.bit(cell - this.width, 1);
         }
 
-        return add;
+        else {
+            return cell % this.width != 0 && this.bit(cell - 1, 0);
+        }
     }
 
-    // checks if a vertical wall should be added
-    boolean addDownWall(int x, int y) {
-        boolean add = true;
+    // checks if the given cell has a neighbour in the given direction
+    boolean hasNeighbour(int cell, byte direction) {
+        if (direction == NORTH) {
+            return cell >= this.width;
+        }
 
-        for (Edge edge : this.edgesInTree) {
-            if (edge.noDownWall(x, y)) {
-                add = false;
-            }
+        else if (direction == SOUTH) {
+            return cell + this.width < this.size();
+        }
+
+        else if (direction == EAST) {
+            return cell % this.width < this.width - 1;
         }
 
-        return add;
+        else {
+            return cell % this.width > 0;
+        }
     }
 
-    // returns the arrayList of a depth first search on the graph
-    ArrayList<Vertex> depthFirst() {
-        HashMap<Vertex, Edge> edges = new HashMap<Vertex, Edge>();
-        // used as a Stack (me thinks)
-        Deque<Vertex> worklist = new Deque<Vertex>();
-        // using a deque because we already built it but can be used
-        // as both a stack AND a queue.
-        ArrayList<Vertex> visited = new ArrayList<Vertex>();
-        // adds starting node to worklist
-        worklist.addAtHead(allVertex.get(0));
-        // sets target to final Vertex in ArrayList of created Vertex
-        Vertex target = allVertex.get(allVertex.size() - 1);
-        // System.out.println("while loop begun");
-        while (worklist.size() > 0) {
-            Vertex next = worklist.removeFromHead();
-            if (visited.contains(next)) {
-                // System.out.println("Vertex was seen before");
-            } 
-            
-            else if (next.equals(target)) {
-                visited.add(next);
-                // System.out.println("end was reached");
-                // sets workList size to 0 to break loop
-                worklist = new Deque<Vertex>();
-            } 
-            
-            else {
-                visited.add(next);
+    // returns the number of the cell next to the given one in a direction
+    int neighbour(int cell, byte direction) {
+        if (direction == NORTH) {
+            return cell - this.width;
+        }
 
-                for (Edge e : this.edgesInTree) {
-                    if (e.vertex1.equals(next)) {
-                        if (!visited.contains(e.vertex2)) {
-                            worklist.addAtHead(e.vertex2);
-                            edges.put(e.vertex2, new Edge(next, e.vertex2));
-                        }
-                    }
+        else if (direction == SOUTH) {
+            return cell + this.width;
+        }
 
-                    else if (e.vertex2.equals(next)) {
-                        if (!visited.contains(e.vertex1)) {
-                            worklist.addAtHead(e.vertex1);
-                            edges.put(e.vertex1, new Edge(next, e.vertex1));
-                        }
-                    }
+        else if (direction == EAST) {
+            return cell + 1;
+        }
 
-                }
-            }
+        else {
+            return cell - 1;
         }
-        this.depthTrail = visited;
-        return reconstruct(edges, target, new ArrayList<Vertex>());
     }
 
-    // returns the arrayList of a breadth first search on the graph
-    ArrayList<Vertex> breadthFirst() {
-        HashMap<Vertex, Edge> edges = new HashMap<Vertex, Edge>();
-        // used as a Queue (me thinks)
-        Deque<Vertex> worklist = new Deque<Vertex>();
-        // using a deque because we already built it but can be used
-        // as both a stack AND a queue.
-        ArrayList<Vertex> visited = new ArrayList<Vertex>();
-        // adds starting node to worklist
-        worklist.addAtHead(allVertex.get(0));
-        // sets target to final Vertex in ArrayList of created Vertex
-        Vertex target = allVertex.get(allVertex.size() - 1);
-        // System.out.println("while loop begun");
-        while (worklist.size() > 0) {
-            Vertex next = worklist.removeFromTail();
-            if (visited.contains(next)) {
-                // System.out.println("Vertex was seen before");
-            } 
-            
-            else if (next.equals(target)) {
-                visited.add(next);
-                // System.out.println("end was reached");
-                // sets workList size to 0 to break loop
-                worklist = new Deque<Vertex>();
-            } 
-            
-            else {
-                visited.add(next);
+    // checks if there is an opening from one cell straight into the other
+    boolean canWalk(int from, int to) {
+        if (to == from - this.width) {
+            return this.isOpen(from, NORTH);
+        }
 
-                for (Edge e : this.edgesInTree) {
-                    if (e.vertex1.equals(next)) {
-                        if (!visited.contains(e.vertex2)) {
-                            worklist.addAtHead(e.vertex2);
-                            edges.put(e.vertex2, new Edge(next, e.vertex2));
-                        }
-                    }
+        else if (to == from + this.width) {
+            return this.isOpen(from, SOUTH);
+        }
 
-                    else if (e.vertex2.equals(next)) {
-                        if (!visited.contains(e.vertex1)) {
-                            worklist.addAtHead(e.vertex1);
-                            edges.put(e.vertex1, new Edge(next, e.vertex1));
-                        }
-                    }
+        else if (to == from + 1) {
+            return this.isOpen(from, EAST);
+        }
 
-                }
-            }
+        else if (to == from - 1) {
+            return this.isOpen(from, WEST);
         }
-        this.breadthTrail = visited;
-        return reconstruct(edges, target, new ArrayList<Vertex>());
-    }
 
-    // returns the path from beginning to end
-    ArrayList<Vertex> reconstruct(HashMap<Vertex, Edge> edges, 
-            Vertex finish, ArrayList<Vertex> sol) {
-        Vertex next = finish;
-        if (!edges.containsKey(next)) {
-            return sol;
-        } 
-        
         else {
-            Vertex nameme = edges.get(next).vertex1;
-            sol.add(next);
-            edges.remove(next);
-            return reconstruct(edges, nameme, sol);
+            return false;
         }
     }
+}
 
-    // draws the world
-    public WorldScene makeScene() {
-        WorldScene world = this.getEmptyScene();
-        WorldImage player = new RectangleImage(Vertex.CELL_SIZE, Vertex.CELL_SIZE, 
-                "solid", Color.BLUE);
-        WorldImage start = new RectangleImage(Vertex.CELL_SIZE, Vertex.CELL_SIZE, 
-                "solid", Color.GREEN);
-        WorldImage end = new RectangleImage(Vertex.CELL_SIZE, Vertex.CELL_SIZE, 
-                "solid", Color.MAGENTA);
-        WorldImage rightLine = new LineImage(new Posn(Vertex.CELL_SIZE, 0), new Color(0, 0, 0));
-        WorldImage downLine = new LineImage(new Posn(0, Vertex.CELL_SIZE), new Color(0, 0, 0));
-        // searching specifics
-        WorldImage vertexSearched = new RectangleImage(Vertex.CELL_SIZE, 
-                Vertex.CELL_SIZE, "solid", Color.CYAN);
-        WorldImage vertexSolution = new RectangleImage(Vertex.CELL_SIZE, 
-                Vertex.CELL_SIZE, "solid", Color.RED);
-        WorldImage oneWins = new TextImage("Player 1 wins!", Color.BLACK);
-        WorldImage twoWins = new TextImage("Player 2 wins!", Color.BLACK);
-
-        // draws trail
-        if (this.showPath) {
-            for (Posn spot : this.trail) {
-                world.placeImageXY(vertexSearched, spot.x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                        spot.y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
-            }
-
-            if (this.player2) {
-                for (Posn spot : this.trail2) {
-                    world.placeImageXY(vertexSearched, 
-                            spot.x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                            spot.y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
-                }
+// a maze whose passage bits are held in memory, where generators carve it
+class MazeGrid extends AGrid {
+    // four cells to a byte, the east bit of cell i is bit 2 * (i % 4) of
+    // byte i / 4 and its south bit is the one above that
+    byte[] bits;
+
+    MazeGrid(int length, int width) {
+        this(length, width, new byte[(length * width + 3) / 4]);
+    }
 
-                world.placeImageXY(end, Vertex.CELL_SIZE / 2, 
-                        Vertex.CELL_SIZE * this.length - Vertex.CELL_SIZE / 2);
+    // a grid over passage bits that are already packed
+    MazeGrid(int length, int width, byte[] bits) {
+        super(length, width);
+        this.bits = bits;
+    }
 
-                world.placeImageXY(start, 
-                        this.width * Vertex.CELL_SIZE - Vertex.CELL_SIZE / 2, Vertex.CELL_SIZE / 2);
+    // checks if the given bit of the cell's pair is set
+    boolean bit(int cell, int which) {
+        return (this.bits[cell >> 2] >> ((cell & 3) * 2 + which) & 1) != 0;
+    }
 
-                world.placeImageXY(player, this.player2x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                        this.player2y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
+    // returns the packed passage bits, a view of the array
+    ByteBuffer packedBits() {
+        return ByteBuffer.wrap(this.bits);
+    }
 
+    // EFFECT: opens the walls of row y that the packed row bits say are open
+    void setRow(int y, byte[] row) {
+        int base = y * this.width;
+        for (int x = 0; x < this.width; x += 1) {
+            int pair = row[x >> 2] >> ((x & 3) * 2);
+            if ((pair & 1) != 0) {
+                this.carve(base + x, base + x + 1);
+            }
+            if ((pair & 2) != 0) {
+                this.carve(base + x, base + x + this.width);
             }
         }
-        // draws trail
-        // search maybe?
-        // draws depth trail
-        for (int i = depthCounter; i > 0; i -= 1) {
-            world.placeImageXY(vertexSearched, 
-                    depthTrail.get(i).x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                    depthTrail.get(i).y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
+    }
+
+    // EFFECT: opens the wall between two neighbouring cells
+    void carve(int cell1, int cell2) {
+        int low = Math.min(cell1, cell2);
+        int high = Math.max(cell1, cell2);
+        if (high - low == this.width) {
+            this.bits[low >> 2] |= 2 << ((low & 3) * 2);
         }
 
-        for (int i = breadthCounter; i > 0; i -= 1) {
-            world.placeImageXY(vertexSearched, 
-                    breadthTrail.get(i).x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                    breadthTrail.get(i).y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
+        else {
+            this.bits[low >> 2] |= 1 << ((low & 3) * 2);
         }
+    }
 
-        if (showSolution) {
-            for (Vertex v : solution) {
-                world.placeImageXY(vertexSolution,
-                        v.x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                        v.y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
-            }
+    // EFFECT: puts back the wall between two neighbouring cells
+    void close(int cell1, int cell2) {
+        int low = Math.min(cell1, cell2);
+        int high = Math.max(cell1, cell2);
+        if (high - low == this.width) {
+            this.bits[low >> 2] &= ~(2 << ((low & 3) * 2));
         }
 
-        // start cell
-        world.placeImageXY(start, Vertex.CELL_SIZE / 2, Vertex.CELL_SIZE / 2);
+        else {
+            this.bits[low >> 2] &= ~(1 << ((low & 3) * 2));
+        }
+    }
+}
 
-        // current player position
-        world.placeImageXY(player, this.playerx * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                this.playery * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
+// a maze read straight out of a memory mapped maze file, the passage bits
+// stay in the file's pages and are never copied onto the heap
+class MappedGrid extends AGrid {
+    // the passage bits, a view of the file just past its header
+    ByteBuffer data;
+    // the seed the maze was generated from
+    long seed;
+    // the name of the generator that made the maze
+    String generator;
+
+    MappedGrid(int length, int width, ByteBuffer data, long seed, String generator) {
+        super(length, width);
+        this.data = data;
+        this.seed = seed;
+        this.generator = generator;
+    }
 
-        // end cell
-        world.placeImageXY(end, Vertex.CELL_SIZE * this.width - Vertex.CELL_SIZE / 2,
-                Vertex.CELL_SIZE * this.length - Vertex.CELL_SIZE / 2);
+    // checks if the given bit of the cell's pair is set
+    boolean bit(int cell, int which) {
+        return (this.data.get(cell >> 2) >> ((cell & 3) * 2 + which) & 1) != 0;
+    }
 
-        for (int y = 0; y < this.length; y += 1) {
-            for (int x = 0; x < this.width; x += 1) {
-                if (this.addRightWall(x, y)) {
-                    world.placeImageXY(rightLine, 
-                            x * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2, y * Vertex.CELL_SIZE);
-                }
+    // returns the packed passage bits, a view of the mapping that stops at
+    // the end of the maze even if the file goes on
+    ByteBuffer packedBits() {
+        ByteBuffer view = this.data.duplicate();
+        view.clear();
+        view.limit(this.packedSize());
+        return view;
+    }
+}
 
-                if (this.addDownWall(x, y)) {
-                    world.placeImageXY(downLine, 
-                            x * Vertex.CELL_SIZE, y * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
-                }
-            }
+// reads and writes mazes in a compact file format, a header and then the
+// passage bits packed exactly as in MazeGrid.bits:
+//   0   int       magic number, "MAZE"
+//   4   int       format version
+//   8   int       width
+//   12  int       length
+//   16  long      seed
+//   24  32 bytes  generator name, US-ASCII, padded with zeros
+//   56            passage bits, (width * length + 3) / 4 bytes
+class MazeFile {
+    static final int MAGIC = 0x4D415A45;
+    static final int VERSION = 1;
+    static final int NAME_SIZE = 32;
+    static final int HEADER_SIZE = 56;
+
+    // returns the header of a maze file, ready to be written
+    ByteBuffer header(int length, int width, long seed, String generator) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(width);
+        header.putInt(length);
+        header.putLong(seed);
+        byte[] name = generator.getBytes(StandardCharsets.US_ASCII);
+        header.put(name, 0, Math.min(name.length, NAME_SIZE));
+        header.position(HEADER_SIZE);
+        header.flip();
+        return header;
+    }
+
+    // EFFECT: writes the maze to the file, replacing anything already there
+    void write(AGrid grid, long seed, String generator, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            this.writeFully(channel, this.header(grid.length, grid.width, seed, generator));
+            this.writeFully(channel, grid.packedBits());
         }
-        
-        if (this.player2) {
-            if (this.playerx == this.width - 1 && this.playery == this.length - 1) {
-                world = new WorldScene(this.width, this.length);
-                world.placeImageXY(oneWins, 
-                        this.width / 2 * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                        this.length / 2 * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
-            } 
-            
-            else if (this.player2x == 0 && this.player2y == this.length - 1) {
-                world = new WorldScene(this.width, this.length);
-                world.placeImageXY(twoWins, 
-                        this.width / 2 * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2,
-                        this.length / 2 * Vertex.CELL_SIZE + Vertex.CELL_SIZE / 2);
-            }
+
+        finally {
+            channel.close();
         }
-        return world;
     }
 
-    // EFFECT: updates the Maze and "Player" depending on key press
-    public void onKeyEvent(String key) {
-        if (key.equals("n")) {
-            this.mazeGen(this.length, this.width, false);
+    // EFFECT: writes everything left in the buffer to the channel
+    void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
         }
-        // manual player movement
-        if (key.equals("down")) {
-            trail.add(new Posn(this.playerx, this.playery));
-            if (this.playery + 1 < this.length 
-                    && this.canWalk(playerx, playery, playerx, playery + 1)) {
-                this.playery += 1;
+    }
+
+    // returns the maze in the file, reading its passage bits through a
+    // read-only memory mapping rather than loading them
+    MappedGrid map(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a maze file: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, 
+                    Math.min(channel.size(), Integer.MAX_VALUE));
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a maze file: " + file);
             }
-        }
 
-        if (key.equals("up")) {
-            trail.add(new Posn(this.playerx, this.playery));
-            if (this.playery - 1 >= 0 
-                    && this.canWalk(playerx, playery, playerx, playery - 1)) {
-                this.playery -= 1;
+            if (mapped.getInt(4) != VERSION) {
+                throw new IOException("Unknown maze file version " + mapped.getInt(4));
             }
-        }
-        if (key.equals("right")) {
-            trail.add(new Posn(this.playerx, this.playery));
-            if (this.playerx + 1 < this.width 
-                    && this.canWalk(playerx, playery, playerx + 1, playery)) {
-                this.playerx += 1;
+            int width = mapped.getInt(8);
+            int length = mapped.getInt(12);
+            if (width < 1 || length < 1) {
+                throw new IOException("Maze file has no cells: " + file);
             }
-        }
-        if (key.equals("left")) {
-            trail.add(new Posn(this.playerx, this.playery));
-            if (this.playerx - 1 >= 0 
-                    && this.canWalk(playerx, playery, playerx - 1, playery)) {
-                this.playerx -= 1;
+
+            if ((long) width * length > Integer.MAX_VALUE 
+                    || HEADER_SIZE + ((long) width * length + 3) / 4 > channel.size()) {
+                throw new IOException("Maze file is too large or cut short: " + file);
             }
+            byte[] name = new byte[NAME_SIZE];
+            mapped.position(24);
+            mapped.get(name);
+            int nameLength = 0;
+            while (nameLength < NAME_SIZE && name[nameLength] != 0) {
+                nameLength += 1;
+            }
+            mapped.position(HEADER_SIZE);
+            return new MappedGrid(length, width, mapped.slice(), mapped.getLong(16), 
+                    new String(name, 0, nameLength, StandardCharsets.US_ASCII));
         }
-        if (key.equals("j")) {
-            this.depthActivated = true;
-            this.solution = this.depthFirst();
 
+        finally {
+            channel.close();
         }
-        if (key.equals("k")) {
-            this.breadthActivated = true;
-            this.solution = this.breadthFirst();
+    }
+}
 
+// answers path and distance queries between any two cells of a perfect
+// maze, which is a tree, through their lowest common ancestor once rooted at
+// cell 0. Every cell keeps its parent, its depth and one jump pointer that
+// skips up to a far ancestor, chosen so that any climb takes O(log V) hops
+// while the whole index stays at three ints per cell
+class PathIndex {
+    // the cell each cell hangs from, or -1 for the root
+    int[] parent;
+    // the steps from the root to each cell
+    int[] depth;
+    // a farther ancestor of each cell to skip to
+    int[] jump;
+
+    PathIndex(AGrid grid) {
+        int size = grid.size();
+        this.parent = new int[size];
+        this.depth = new int[size];
+        this.jump = new int[size];
+        // every cell is seen after its parent, so its parent's jump is ready
+        IntDeque worklist = new IntDeque();
+        this.parent[0] = -1;
+        this.jump[0] = 0;
+        worklist.addAtTail(0);
+        while (worklist.size() > 0) {
+            int cell = worklist.removeFromHead();
+            for (byte dir : MazeGrid.DIRECTIONS) {
+                if (grid.isOpen(cell, dir)) {
+                    int child = grid.neighbour(cell, dir);
+                    if (child != this.parent[cell]) {
+                        this.link(child, cell);
+                        worklist.addAtTail(child);
+                    }
+                }
+            }
         }
-        if (key.equals("2")) {
-            this.mazeGen(this.length, this.width, true);
+    }
+
+    // EFFECT: hangs child from parent, and points its jump past parent's
+    // jump when the two jumps before it are the same length
+    void link(int child, int parent) {
+        this.parent[child] = parent;
+        this.depth[child] = this.depth[parent] + 1;
+        int up = this.jump[parent];
+        if (this.depth[parent] - this.depth[up] == this.depth[up] - this.depth[this.jump[up]]) {
+            this.jump[child] = this.jump[up];
         }
-        if (key.equals("1")) {
-            this.mazeGen(this.length, this.width, false);
+
+        else {
+            this.jump[child] = parent;
         }
-        if (this.player2) {
-            if (key.equals("s")) {
-                trail2.add(new Posn(this.player2x, this.player2y));
-                if (this.player2y + 1 < this.length 
-                        && this.canWalk(player2x, player2y, player2x, player2y + 1)) {
-                    this.player2y += 1;
-                }
-            }
+    }
 
-            if (key.equals("w")) {
-                trail2.add(new Posn(this.player2x, this.player2y));
-                if (this.player2y - 1 >= 0 
-                        && this.canWalk(player2x, player2y, player2x, player2y - 1)) {
-                    this.player2y -= 1;
-                }
-            }
-            if (key.equals("d")) {
-                trail2.add(new Posn(this.player2x, this.player2y));
-                if (this.player2x + 1 < this.width 
-                        && this.canWalk(player2x, player2y, player2x + 1, player2y)) {
-                    this.player2x += 1;
-                }
-            }
-            if (key.equals("a")) {
-                trail2.add(new Posn(this.player2x, this.player2y));
-                if (this.player2x - 1 >= 0 
-                        && this.canWalk(player2x, player2y, player2x - 1, player2y)) {
-                    this.player2x -= 1;
-                }
+    // returns the ancestor of the cell at the given depth
+    int climb(int cell, int depth) {
+        while (this.depth[cell] > depth) {
+            if (this.depth[this.jump[cell]] >= depth) {
+                cell = this.jump[cell];
             }
-            if (key.equals("t")) {
-                this.showPath = !this.showPath;
+
+            else {
+                cell = this.parent[cell];
             }
         }
+        return cell;
     }
 
-    boolean canWalk(int x1, int y1, int x2, int y2) {
-        boolean can = false;
-        for (Edge edge : this.edgesInTree) {
-            if (edge.sameVerticies(this.vertGrid.get(y1).get(x1), this.vertGrid.get(y2).get(x2))
-                    || edge.sameVerticies(this.vertGrid.get(y2).get(x2), 
-                            this.vertGrid.get(y1).get(x1))) {
-                can = true;
+    // returns the deepest cell that both cells hang from
+    int lca(int cell1, int cell2) {
+        if (this.depth[cell1] > this.depth[cell2]) {
+            cell1 = this.climb(cell1, this.depth[cell2]);
+        }
+
+        else {
+            cell2 = this.climb(cell2, this.depth[cell1]);
+        }
+
+        while (cell1 != cell2) {
+            if (this.jump[cell1] != this.jump[cell2]) {
+                cell1 = this.jump[cell1];
+                cell2 = this.jump[cell2];
+            }
+
+            else {
+                cell1 = this.parent[cell1];
+                cell2 = this.parent[cell2];
             }
         }
-        return can;
+        return cell1;
     }
 
-    // EFFECT: updates maze every tick
-    public void onTick() {
-        if (playerx == this.width - 1 && playery == this.length - 1) {
-            solution = depthFirst();
-            showSolution = true;
+    // returns the number of steps between the two cells
+    int distance(int cell1, int cell2) {
+        return this.depth[cell1] + this.depth[cell2] - 2 * this.depth[this.lca(cell1, cell2)];
+    }
+
+    // returns the cells on the way from start to goal, both included
+    int[] path(int start, int goal) {
+        int meet = this.lca(start, goal);
+        int up = this.depth[start] - this.depth[meet];
+        int[] path = new int[up + this.depth[goal] - this.depth[meet] + 1];
+        int cell = start;
+        for (int i = 0; i < up; i += 1) {
+            path[i] = cell;
+            cell = this.parent[cell];
         }
-        if (depthCounter < depthTrail.size() - 1 && depthActivated) {
-            depthCounter += 1;
-        } 
-        
-        else if (depthActivated) {
-            showSolution = true;
+        cell = goal;
+        for (int i = path.length - 1; i >= up; i -= 1) {
+            path[i] = cell;
+            cell = this.parent[cell];
         }
+        return path;
+    }
+}
 
-        if (breadthCounter < breadthTrail.size() - 1 && breadthActivated) {
-            breadthCounter += 1;
-        } 
-        
-        else if (breadthActivated) {
-            showSolution = true;
-        }
+// how much work the last run of a search did
+class SearchStats {
+    // the number of cells the search expanded
+    int expanded;
+    // how long the search took
+    long nanos;
 
+    SearchStats(int expanded, long nanos) {
+        this.expanded = expanded;
+        this.nanos = nanos;
+    }
+
+    // returns the stats as one line of text
+    String report() {
+        return this.expanded + " cells expanded in " 
+                + String.format("%.3f", this.nanos / 1000000.0) + " ms";
     }
 }
 
-class ExampleMaze {
-    // deque stuff
-    Sentinel<String> s1 = new Sentinel<String>();
-    Deque<String> deque1 = new Deque<String>(s1);
-    Sentinel<String> s2 = new Sentinel<String>();
-    Deque<String> deque2 = new Deque<String>(s2);
-    Node<String> n21 = new Node<String>("abc", s2, s2);
-    Node<String> n22 = new Node<String>("bcd", s2, n21);
-    Node<String> n23 = new Node<String>("cde", s2, n22);
-    Node<String> n24 = new Node<String>("def", s2, n23);
+// to represent a search from one cell of a maze to another that can be
+// stopped after any number of steps and picked up again later
+abstract class ASearch {
+    // the maze being searched
+    AGrid grid;
+    // where the search starts
+    int start;
+    // where the search is going
+    int goal;
+    // the cell each cell was reached from, or -1
+    int[] parents;
+    // the cells expanded so far
+    BitSet visited;
+    // the number of cells expanded so far
+    int expanded = 0;
+    // how long the steps so far have taken
+    long nanos = 0;
+    // whether the search has stopped, at the goal or with nowhere left to go
+    boolean finished = false;
+    // the cells expanded since this was last emptied, kept only when the
+    // search is being drawn
+    IntDeque recent = null;
+
+    ASearch(AGrid grid, int start, int goal) {
+        this.grid = grid;
+        this.start = start;
+        this.goal = goal;
+        this.parents = new int[grid.size()];
+        Arrays.fill(this.parents, -1);
+        this.visited = new BitSet(grid.size());
+    }
+
+    // returns the name of this search
+    abstract String name();
+
+    // EFFECT: takes one step of the search, setting finished once it is over
+    abstract void expand();
+
+    // EFFECT: takes at most the given number of steps, and returns whether
+    // the search is over
+    boolean step(int work) {
+        long begin = System.nanoTime();
+        while (work > 0 && !this.finished) {
+            this.expand();
+            work -= 1;
+        }
+        this.nanos += System.nanoTime() - begin;
+        return this.finished;
+    }
+
+    // EFFECT: runs the search to the end
+    void run() {
+        boolean done = this.finished;
+        while (!done) {
+            done = this.step(Integer.MAX_VALUE);
+        }
+    }
+
+    // returns the path from the goal back to the start, not including the
+    // start, or nothing if the goal has not been reached
+    int[] solution() {
+        return this.reconstruct(this.parents, this.goal);
+    }
+
+    // returns the work this search has done
+    SearchStats stats() {
+        return new SearchStats(this.expanded, this.nanos);
+    }
+
+    // EFFECT: marks the cell expanded
+    void visit(int cell) {
+        this.visited.set(cell);
+        this.expanded += 1;
+        if (this.recent != null) {
+            this.recent.addAtTail(cell);
+        }
+    }
+
+    // returns the path from the finish back to the beginning, not including
+    // the beginning, by following each cell's parent
+    int[] reconstruct(int[] parents, int finish) {
+        int steps = 0;
+        for (int cell = finish; parents[cell] != -1; cell = parents[cell]) {
+            steps += 1;
+        }
+
+        int[] sol = new int[steps];
+        int cell = finish;
+        for (int i = 0; i < steps; i += 1) {
+            sol[i] = cell;
+            cell = parents[cell];
+        }
+        return sol;
+    }
+}
+
+// to represent a search that takes its next cell from a worklist of cells
+// seen but not yet expanded
+abstract class AWorklistSearch extends ASearch {
+
+    AWorklistSearch(AGrid grid, int start, int goal) {
+        super(grid, start, goal);
+    }
+
+    // returns the number of cells waiting in the worklist
+    abstract int worklistSize();
+
+    // EFFECT: removes the next cell to expand from the worklist and returns it
+    abstract int removeNext();
+
+    // EFFECT: adds a cell reached from the given cell to the worklist
+    abstract void addNext(int cell, int from);
+
+    // EFFECT: expands the next unvisited cell in the worklist, adding its
+    // unvisited neighbours
+    void expand() {
+        if (this.worklistSize() == 0) {
+            this.finished = true;
+            return;
+        }
+        int next = this.removeNext();
+        if (this.visited.get(next)) {
+            // seen before
+        }
+
+        else if (next == this.goal) {
+            this.visit(next);
+            this.finished = true;
+        }
+
+        else {
+            this.visit(next);
+            for (byte dir : MazeGrid.DIRECTIONS) {
+                if (this.grid.isOpen(next, dir)) {
+                    int other = this.grid.neighbour(next, dir);
+                    if (!this.visited.get(other)) {
+                        this.parents[other] = next;
+                        this.addNext(other, next);
+                    }
+                }
+            }
+        }
+    }
+}
+
+// searches depth first, taking the most recently seen cell
+class DepthFirstSearch extends AWorklistSearch {
+    // used as a Stack of cell numbers
+    IntDeque worklist = new IntDeque();
+
+    DepthFirstSearch(AGrid grid, int start, int goal) {
+        super(grid, start, goal);
+        this.worklist.addAtHead(start);
+    }
+
+    // returns the name of this search
+    String name() {
+        return "depth first";
+    }
+
+    // returns the number of cells waiting in the worklist
+    int worklistSize() {
+        return this.worklist.size();
+    }
+
+    // EFFECT: removes the most recently added cell and returns it
+    int removeNext() {
+        return this.worklist.removeFromHead();
+    }
+
+    // EFFECT: adds the cell to the top of the stack
+    void addNext(int cell, int from) {
+        this.worklist.addAtHead(cell);
+    }
+}
+
+// searches breadth first, taking the cell seen longest ago
+class BreadthFirstSearch extends AWorklistSearch {
+    // used as a Queue of cell numbers
+    IntDeque worklist = new IntDeque();
+
+    BreadthFirstSearch(AGrid grid, int start, int goal) {
+        super(grid, start, goal);
+        this.worklist.addAtHead(start);
+    }
+
+    // returns the name of this search
+    String name() {
+        return "breadth first";
+    }
+
+    // returns the number of cells waiting in the worklist
+    int worklistSize() {
+        return this.worklist.size();
+    }
+
+    // EFFECT: removes the least recently added cell and returns it
+    int removeNext() {
+        return this.worklist.removeFromTail();
+    }
+
+    // EFFECT: adds the cell to the back of the queue
+    void addNext(int cell, int from) {
+        this.worklist.addAtHead(cell);
+    }
+}
+
+// searches with A*, always expanding the cell with the smallest steps so far
+// plus Manhattan distance to the goal
+class AStarSearch extends AWorklistSearch {
+    // the cells seen, ordered by their estimated path length
+    IntHeap worklist = new IntHeap(64);
+    // the steps taken to reach each cell
+    int[] steps;
+
+    AStarSearch(AGrid grid, int start, int goal) {
+        super(grid, start, goal);
+        this.steps = new int[grid.size()];
+        this.worklist.push(start, this.priority(start, 0));
+    }
+
+    // returns the name of this search
+    String name() {
+        return "a*";
+    }
+
+    // returns the number of cells waiting in the worklist
+    int worklistSize() {
+        return this.worklist.size();
+    }
+
+    // EFFECT: removes the most promising cell and returns it
+    int removeNext() {
+        return this.worklist.pop();
+    }
+
+    // EFFECT: adds the cell, one step further than the cell it came from
+    void addNext(int cell, int from) {
+        this.steps[cell] = this.steps[from] + 1;
+        this.worklist.push(cell, this.priority(cell, this.steps[cell]));
+    }
+
+    // returns the key of a cell reached in the given steps, the estimated
+    // length of the whole path, ties going to the cell nearer the goal
+    long priority(int cell, int steps) {
+        int width = this.grid.width;
+        long left = Math.abs(this.goal % width - cell % width) 
+                + Math.abs(this.goal / width - cell / width);
+        return (steps + left) << 32 | left;
+    }
+}
+
+// searches breadth first from the start and the goal at once, always growing
+// the smaller frontier, until the two searches meet
+class BidirectionalSearch extends ASearch {
+    // the cell each cell was reached from searching from the goal, or -1
+    int[] fromGoal;
+    // the cells each side has seen
+    BitSet seenStart;
+    BitSet seenGoal;
+    // the cells each side has seen but not expanded
+    IntDeque startQueue = new IntDeque();
+    IntDeque goalQueue = new IntDeque();
+    // where the searches met, or -1
+    int meet = -1;
+
+    BidirectionalSearch(AGrid grid, int start, int goal) {
+        super(grid, start, goal);
+        this.fromGoal = new int[grid.size()];
+        Arrays.fill(this.fromGoal, -1);
+        this.seenStart = new BitSet(grid.size());
+        this.seenGoal = new BitSet(grid.size());
+        this.startQueue.addAtTail(start);
+        this.seenStart.set(start);
+        this.goalQueue.addAtTail(goal);
+        this.seenGoal.set(goal);
+        if (start == goal) {
+            this.meet = start;
+            this.finished = true;
+        }
+    }
+
+    // returns the name of this search
+    String name() {
+        return "bidirectional";
+    }
+
+    // EFFECT: expands the next cell on the side with the smaller frontier
+    void expand() {
+        if (this.startQueue.size() == 0 || this.goalQueue.size() == 0) {
+            this.finished = true;
+            return;
+        }
+        boolean forward = this.startQueue.size() <= this.goalQueue.size();
+        IntDeque queue = this.goalQueue;
+        BitSet mine = this.seenGoal;
+        BitSet theirs = this.seenStart;
+        int[] parents = this.fromGoal;
+        if (forward) {
+            queue = this.startQueue;
+            mine = this.seenStart;
+            theirs = this.seenGoal;
+            parents = this.parents;
+        }
+        int next = queue.removeFromHead();
+        this.visit(next);
+
+        for (byte dir : MazeGrid.DIRECTIONS) {
+            if (this.meet == -1 && this.grid.isOpen(next, dir)) {
+                int other = this.grid.neighbour(next, dir);
+                if (!mine.get(other)) {
+                    mine.set(other);
+                    parents[other] = next;
+                    queue.addAtTail(other);
+                    if (theirs.get(other)) {
+                        this.meet = other;
+                        this.finished = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // returns the path from the goal back to the start through the cell
+    // where the two searches met
+    int[] solution() {
+        return this.join(this.parents, this.fromGoal, this.meet);
+    }
+
+    // returns the path from the finish back to the beginning, not including
+    // the beginning, through the cell where searches from both ends met
+    int[] join(int[] fromStart, int[] fromEnd, int meet) {
+        if (meet == -1) {
+            return new int[0];
+        }
+        int toEnd = 0;
+        for (int cell = meet; fromEnd[cell] != -1; cell = fromEnd[cell]) {
+            toEnd += 1;
+        }
+        int[] toStart = this.reconstruct(fromStart, meet);
+        int[] sol = new int[toEnd + toStart.length];
+        int cell = meet;
+        for (int i = toEnd - 1; i >= 0; i -= 1) {
+            cell = fromEnd[cell];
+            sol[i] = cell;
+        }
+        System.arraycopy(toStart, 0, sol, toEnd, toStart.length);
+        return sol;
+    }
+}
+
+// to represent a way of carving a perfect maze
+interface IMazeGenerator {
+    // returns a length x width maze, the same one for the same seed
+    MazeGrid generate(int length, int width, long seed);
+
+    // returns the name shown for this generator
+    String name();
+}
+
+// builds mazes with randomized Kruskal's algorithm, taking the grid's edge
+// numbers in a random order
+// uniform random weights only ever decide the order edges are tried in, so
+// a shuffle of the edges gives the same kind of maze without sorting
+class KruskalGenerator implements IMazeGenerator {
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        this.carveRows(grid, new UnionFind(grid.size()), 0, length, new SplittableRandom(seed));
+        return grid;
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "kruskal";
+    }
+
+    // EFFECT: joins the cells in rows first to last - 1 into one tree, only
+    // opening walls inside those rows
+    void carveRows(MazeGrid grid, UnionFind sets, int first, int last, SplittableRandom rand) {
+        int width = grid.width;
+        int start = first * width;
+        int end = last * width;
+        int[] edges = new int[Math.max((width - 1) * (last - first) 
+                + width * (last - first - 1), 0)];
+        int count = 0;
+        for (int cell = start; cell < end; cell += 1) {
+            if (cell % width < width - 1) {
+                edges[count] = 2 * cell;
+                count += 1;
+            }
+
+            if (cell + width < end) {
+                edges[count] = 2 * cell + 1;
+                count += 1;
+            }
+        }
+        this.shuffle(edges, rand);
+        this.join(grid, sets, edges, end - start - 1);
+    }
+
+    // EFFECT: puts the edges in a uniformly random order, Fisher-Yates style
+    void shuffle(int[] edges, SplittableRandom rand) {
+        for (int i = edges.length - 1; i > 0; i -= 1) {
+            int j = rand.nextInt(i + 1);
+            int temp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = temp;
+        }
+    }
+
+    // EFFECT: opens the walls of the given edges, in order, that join two
+    // separate sets, stopping once it has opened the given number
+    void join(MazeGrid grid, UnionFind sets, int[] edges, int wanted) {
+        int accepted = 0;
+        for (int i = 0; i < edges.length && accepted < wanted; i += 1) {
+            int edge = edges[i];
+            int cell = edge >> 1;
+            int other = grid.across(edge);
+            if (sets.union(cell, other)) {
+                grid.carve(cell, other);
+                accepted += 1;
+            }
+        }
+    }
+}
+
+// builds very large mazes on several cores: every edge gets a weight from
+// one hash of the seed, the grid is cut into strips of rows, and each strip
+// carves the Kruskal tree of its own edges in parallel, except for the few
+// edges a lighter path through a neighbouring strip might still replace
+// those are kept in a summary of O(width) edges between the strip's top and
+// bottom rows, and neighbouring summaries are merged in pairs with the walls
+// between them up the same fork/join tree, so no step ever looks at more
+// than a strip. The result is the maze serial Kruskal would carve for the
+// same weights, on any number of threads
+class ParallelKruskalGenerator implements IMazeGenerator {
+    // rows per strip, a multiple of 4 so no two strips share a byte of the
+    // grid and strips and merges can carve at the same time
+    static final int STRIP_ROWS = 128;
+    // the pool the strips run on
+    ForkJoinPool pool;
+
+    ParallelKruskalGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    ParallelKruskalGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        int strips = (length + STRIP_ROWS - 1) / STRIP_ROWS;
+        if (strips > 0) {
+            // with no rows outside the whole maze to answer to, the last
+            // merge carves everything that is left
+            this.pool.invoke(new StripTask(this, grid, seed, 0, strips));
+        }
+        return grid;
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "parallel kruskal";
+    }
+
+    // returns the sort key of an edge: its weight for the seed in the high
+    // bits, mixed SplitMix64 style, and the edge itself in the low 31
+    long weigh(long seed, int edge) {
+        long z = seed + (edge + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return ((z >>> 32) << 31) | edge;
+    }
+
+    // returns the edge of a sort key
+    int edgeOf(long key) {
+        return (int) (key & 0x7FFFFFFF);
+    }
+
+    // EFFECT: sorts keys made by weigh by weight and then edge: weights are
+    // uniform, so spreading the keys over about as many buckets as there are
+    // keys by the top bits of their weight leaves each only a few keys out of
+    // order for an insertion sort to put right
+    void bucketSort(long[] keys) {
+        int bits = 1;
+        while ((1 << bits) < keys.length && bits < 24) {
+            bits += 1;
+        }
+        int shift = 63 - bits;
+        int[] next = new int[1 << bits];
+        for (long key : keys) {
+            next[(int) (key >>> shift)] += 1;
+        }
+        int total = 0;
+        for (int i = 0; i < next.length; i += 1) {
+            int count = next[i];
+            next[i] = total;
+            total += count;
+        }
+        long[] spread = new long[keys.length];
+        for (long key : keys) {
+            int bucket = (int) (key >>> shift);
+            spread[next[bucket]] = key;
+            next[bucket] += 1;
+        }
+        for (int i = 0; i < spread.length; i += 1) {
+            long key = spread[i];
+            int j = i;
+            while (j > 0 && spread[j - 1] > key) {
+                keys[j] = spread[j - 1];
+                spread[j] = spread[j - 1];
+                j -= 1;
+            }
+            spread[j] = key;
+            keys[j] = key;
+        }
+    }
+
+    // returns the summary of rows top to bottom - 1 on their own
+    // EFFECT: carves the edges of their Kruskal tree no outside path can replace
+    StripSummary strip(MazeGrid grid, long seed, int top, int bottom) {
+        int width = grid.width;
+        int base = top * width;
+        int end = bottom * width;
+        long[] keys = new long[Math.max((width - 1) * (bottom - top) 
+                + width * (bottom - top - 1), 0)];
+        int count = 0;
+        for (int cell = base; cell < end; cell += 1) {
+            if (cell % width < width - 1) {
+                keys[count] = this.weigh(seed, 2 * cell);
+                count += 1;
+            }
+
+            if (cell + width < end) {
+                keys[count] = this.weigh(seed, 2 * cell + 1);
+                count += 1;
+            }
+        }
+        this.bucketSort(keys);
+
+        // the strip's own tree, over cells numbered from its first one
+        int size = end - base;
+        MazeGrid tree = new MazeGrid(bottom - top, width);
+        UnionFind sets = new UnionFind(size);
+        int accepted = 0;
+        for (int i = 0; i < keys.length && accepted < size - 1; i += 1) {
+            int edge = this.edgeOf(keys[i]);
+            int cell = (edge >> 1) - base;
+            int other = grid.across(edge) - base;
+            if (sets.union(cell, other)) {
+                tree.carve(cell, other);
+                accepted += 1;
+            }
+        }
+        boolean[] outer = new boolean[size];
+        this.markOuter(outer, grid, top, bottom, base, null);
+
+        // hang the tree from an outer cell, breadth first
+        int[] order = new int[size];
+        int[] parent = new int[size];
+        long[] upKeys = new long[size];
+        // from an outer cell if there is one, any cell does for a tree that
+        // is settled anyway
+        int root = Math.max(this.firstOuter(outer), 0);
+        if (size > 0) {
+            Arrays.fill(parent, -1);
+            order[0] = root;
+            parent[root] = root;
+            int reached = 1;
+            for (int i = 0; i < reached; i += 1) {
+                int cell = order[i];
+                for (byte dir : MazeGrid.DIRECTIONS) {
+                    if (tree.isOpen(cell, dir)) {
+                        int other = tree.neighbour(cell, dir);
+                        if (parent[other] == -1) {
+                            parent[other] = cell;
+                            int low = base + Math.min(cell, other);
+                            if (Math.abs(cell - other) == width) {
+                                upKeys[other] = this.weigh(seed, 2 * low + 1);
+                            }
+
+                            else {
+                                upKeys[other] = this.weigh(seed, 2 * low);
+                            }
+                            order[reached] = other;
+                            reached += 1;
+                        }
+                    }
+                }
+            }
+        }
+        // the strip starts on a byte of its own, so its tree goes in whole,
+        // with the edges still to be decided walled up again
+        StripSummary summary = this.compress(size, order, parent, upKeys, outer);
+        System.arraycopy(tree.bits, 0, grid.bits, base >> 2, tree.bits.length);
+        for (long key : summary.keys) {
+            this.close(grid, key);
+        }
+        summary.shift(base);
+        return summary;
+    }
+
+    // returns the summary of two neighbouring runs of rows, top to middle - 1
+    // summed up by upper and middle to bottom - 1 by lower
+    // EFFECT: carves the edges that no path outside top to bottom - 1 can
+    // still replace
+    StripSummary merge(MazeGrid grid, long seed, StripSummary upper, StripSummary lower, 
+            int top, int middle, int bottom) {
+        int width = grid.width;
+        int edges = upper.size() + lower.size() + width;
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        long[] keys = new long[edges];
+        upper.copyInto(from, to, keys, 0);
+        lower.copyInto(from, to, keys, upper.size());
+        int count = upper.size() + lower.size();
+        int above = (middle - 1) * width;
+        for (int x = 0; x < width; x += 1) {
+            from[count] = above + x;
+            to[count] = above + x + width;
+            keys[count] = this.weigh(seed, 2 * (above + x) + 1);
+            count += 1;
+        }
+
+        // number the cells the edges touch from 0
+        int[] cells = new int[2 * edges];
+        System.arraycopy(from, 0, cells, 0, edges);
+        System.arraycopy(to, 0, cells, edges, edges);
+        Arrays.sort(cells);
+        int distinct = 0;
+        for (int i = 0; i < cells.length; i += 1) {
+            if (i == 0 || cells[i] != cells[i - 1]) {
+                cells[distinct] = cells[i];
+                distinct += 1;
+            }
+        }
+        cells = Arrays.copyOf(cells, distinct);
+
+        // the edges by key, keys are unique since every edge has one
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int[] sortedFrom = new int[edges];
+        int[] sortedTo = new int[edges];
+        for (int i = 0; i < edges; i += 1) {
+            int at = Arrays.binarySearch(sorted, keys[i]);
+            sortedFrom[at] = Arrays.binarySearch(cells, from[i]);
+            sortedTo[at] = Arrays.binarySearch(cells, to[i]);
+        }
+
+        // Kruskal over the summaries and the walls between them, an edge it
+        // turns down stays a wall
+        UnionFind sets = new UnionFind(distinct);
+        int[] keptFrom = new int[Math.max(distinct - 1, 0)];
+        int[] keptTo = new int[keptFrom.length];
+        long[] kept = new long[keptFrom.length];
+        int accepted = 0;
+        for (int i = 0; i < edges && accepted < kept.length; i += 1) {
+            if (sets.union(sortedFrom[i], sortedTo[i])) {
+                keptFrom[accepted] = sortedFrom[i];
+                keptTo[accepted] = sortedTo[i];
+                kept[accepted] = sorted[i];
+                accepted += 1;
+            }
+        }
+        boolean[] outer = new boolean[distinct];
+        this.markOuter(outer, grid, top, bottom, 0, cells);
+
+        // the kept edges at each cell
+        int[] firstEdge = new int[distinct + 1];
+        for (int e = 0; e < accepted; e += 1) {
+            firstEdge[keptFrom[e] + 1] += 1;
+            firstEdge[keptTo[e] + 1] += 1;
+        }
+        for (int i = 0; i < distinct; i += 1) {
+            firstEdge[i + 1] += firstEdge[i];
+        }
+        int[] filled = Arrays.copyOf(firstEdge, distinct);
+        int[] incident = new int[2 * accepted];
+        for (int e = 0; e < accepted; e += 1) {
+            incident[filled[keptFrom[e]]] = e;
+            filled[keptFrom[e]] += 1;
+            incident[filled[keptTo[e]]] = e;
+            filled[keptTo[e]] += 1;
+        }
+
+        // hang the tree from an outer cell, breadth first
+        int[] order = new int[distinct];
+        int[] parent = new int[distinct];
+        long[] upKeys = new long[distinct];
+        int root = Math.max(this.firstOuter(outer), 0);
+        if (distinct > 0) {
+            Arrays.fill(parent, -1);
+            order[0] = root;
+            parent[root] = root;
+            int reached = 1;
+            for (int i = 0; i < reached; i += 1) {
+                int cell = order[i];
+                for (int j = firstEdge[cell]; j < firstEdge[cell + 1]; j += 1) {
+                    int e = incident[j];
+                    int other = keptFrom[e] + keptTo[e] - cell;
+                    if (parent[other] == -1) {
+                        parent[other] = cell;
+                        upKeys[other] = kept[e];
+                        order[reached] = other;
+                        reached += 1;
+                    }
+                }
+            }
+        }
+        // the kept edges go in, apart from those still to be decided
+        StripSummary summary = this.compress(distinct, order, parent, upKeys, outer);
+        for (int e = 0; e < accepted; e += 1) {
+            this.carve(grid, kept[e]);
+        }
+        for (long key : summary.keys) {
+            this.close(grid, key);
+        }
+        summary.rename(cells);
+        return summary;
+    }
+
+    // EFFECT: marks the cells, numbered from base or by their place in cells
+    // when it is given, that lie on row top or bottom - 1 and so touch rows
+    // outside top to bottom - 1, rows at the edge of the maze touch nothing
+    void markOuter(boolean[] outer, MazeGrid grid, int top, int bottom, int base, 
+            int[] cells) {
+        for (int i = 0; i < outer.length; i += 1) {
+            int y;
+            if (cells == null) {
+                y = (base + i) / grid.width;
+            }
+
+            else {
+                y = cells[i] / grid.width;
+            }
+            outer[i] = (y == top && top > 0) || (y == bottom - 1 && bottom < grid.length);
+        }
+    }
+
+    // returns the first outer cell, or -1 if there are none
+    int firstOuter(boolean[] outer) {
+        for (int i = 0; i < outer.length; i += 1) {
+            if (outer[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // returns a tree over cells 0 to size - 1 boiled down to what a path
+    // through the outer cells could still change: only edges on paths between
+    // outer cells can ever be swapped out, and on a path whose inner cells
+    // branch off to no other outer cell, only its heaviest edge, so each such
+    // path becomes one edge with that key
+    // the tree is given hanging from an outer cell, with its cells in breadth
+    // first order, each cell's parent and the key of the edge up to it, and
+    // every edge of the tree left out of the summary is settled
+    StripSummary compress(int size, int[] order, int[] parent, long[] upKeys, boolean[] outer) {
+        int outers = 0;
+        for (boolean isOuter : outer) {
+            if (isOuter) {
+                outers += 1;
+            }
+        }
+        // with one outer cell or none there is no outside path to make a
+        // cycle with, so everything is settled
+        boolean settled = outers < 2;
+
+        // an edge is on a path between outer cells when the cells below it
+        // hold one, the root being outer itself
+        int[] below = new int[size];
+        int[] degree = new int[size];
+        for (int i = size - 1; i > 0; i -= 1) {
+            int cell = order[i];
+            if (outer[cell]) {
+                below[cell] += 1;
+            }
+
+            if (below[cell] > 0 && !settled) {
+                below[parent[cell]] += below[cell];
+                degree[cell] += 1;
+                degree[parent[cell]] += 1;
+            }
+        }
+
+        // walk up from every cell a path ends at to the next one, keeping only
+        // the heaviest edge
+        int[] starts = new int[Math.max(outers * 2 - 2, 0)];
+        int[] ends = new int[starts.length];
+        long[] heaviest = new long[starts.length];
+        int paths = 0;
+        for (int i = 1; i < size && !settled; i += 1) {
+            int cell = order[i];
+            if (below[cell] > 0 && (outer[cell] || degree[cell] > 2)) {
+                int at = cell;
+                long best = upKeys[at];
+                at = parent[at];
+                while (!outer[at] && degree[at] <= 2) {
+                    best = Math.max(best, upKeys[at]);
+                    at = parent[at];
+                }
+                starts[paths] = cell;
+                ends[paths] = at;
+                heaviest[paths] = best;
+                paths += 1;
+            }
+        }
+        return new StripSummary(Arrays.copyOf(starts, paths), Arrays.copyOf(ends, paths), 
+                Arrays.copyOf(heaviest, paths));
+    }
+
+    // EFFECT: opens the wall of the edge with the given key
+    void carve(MazeGrid grid, long key) {
+        int edge = this.edgeOf(key);
+        grid.carve(edge >> 1, grid.across(edge));
+    }
+
+    // EFFECT: puts back the wall of the edge with the given key
+    void close(MazeGrid grid, long key) {
+        int edge = this.edgeOf(key);
+        grid.close(edge >> 1, grid.across(edge));
+    }
+}
+
+// the edges of a run of rows a lighter path outside it might still replace,
+// each standing for a path of its Kruskal tree by the heaviest edge on it
+class StripSummary {
+    // the cells at either end of each path
+    int[] from;
+    int[] to;
+    // the key of the heaviest edge on each path
+    long[] keys;
+
+    StripSummary(int[] from, int[] to, long[] keys) {
+        this.from = from;
+        this.to = to;
+        this.keys = keys;
+    }
+
+    // returns the number of paths
+    int size() {
+        return this.keys.length;
+    }
+
+    // EFFECT: copies the paths into the arrays, starting at the given place
+    void copyInto(int[] from, int[] to, long[] keys, int at) {
+        System.arraycopy(this.from, 0, from, at, this.size());
+        System.arraycopy(this.to, 0, to, at, this.size());
+        System.arraycopy(this.keys, 0, keys, at, this.size());
+    }
+
+    // EFFECT: adds base to the cells, numbered from the strip's first cell
+    void shift(int base) {
+        for (int i = 0; i < this.size(); i += 1) {
+            this.from[i] += base;
+            this.to[i] += base;
+        }
+    }
+
+    // EFFECT: swaps each cell number for the cell at that place in cells
+    void rename(int[] cells) {
+        for (int i = 0; i < this.size(); i += 1) {
+            this.from[i] = cells[this.from[i]];
+            this.to[i] = cells[this.to[i]];
+        }
+    }
+}
+
+// summarises a range of strips, splitting the range across the pool and
+// merging the summaries of the halves
+class StripTask extends RecursiveTask<StripSummary> {
+    private static final long serialVersionUID = 1L;
+    // the generator whose edge weights the strips use
+    ParallelKruskalGenerator generator;
+    // the maze being built, each task only carves inside its own rows
+    MazeGrid grid;
+    // the seed every edge weight is hashed from
+    long seed;
+    // the first strip of the range
+    int first;
+    // one past the last strip of the range
+    int last;
+
+    StripTask(ParallelKruskalGenerator generator, MazeGrid grid, long seed, int first, 
+            int last) {
+        this.generator = generator;
+        this.grid = grid;
+        this.seed = seed;
+        this.first = first;
+        this.last = last;
+    }
+
+    // returns the summary of this range of strips
+    // EFFECT: carves every edge of the range that is settled
+    protected StripSummary compute() {
+        int top = this.first * ParallelKruskalGenerator.STRIP_ROWS;
+        int bottom = Math.min(this.last * ParallelKruskalGenerator.STRIP_ROWS, this.grid.length);
+        if (this.last - this.first == 1) {
+            return this.generator.strip(this.grid, this.seed, top, bottom);
+        }
+
+        else {
+            int middle = (this.first + this.last) / 2;
+            StripTask upper = new StripTask(this.generator, this.grid, this.seed, 
+                    this.first, middle);
+            StripTask lower = new StripTask(this.generator, this.grid, this.seed, 
+                    middle, this.last);
+            invokeAll(upper, lower);
+            return this.generator.merge(this.grid, this.seed, upper.join(), lower.join(), 
+                    top, middle * ParallelKruskalGenerator.STRIP_ROWS, bottom);
+        }
+    }
+}
+
+// builds mazes with an iterative recursive backtracker: a random walk that
+// only steps into unvisited cells, backing up along an int stack at dead ends
+class BacktrackerGenerator implements IMazeGenerator {
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        SplittableRandom rand = new SplittableRandom(seed);
+        BitSet visited = new BitSet(grid.size());
+        int[] stack = new int[grid.size()];
+        int[] options = new int[4];
+        stack[0] = rand.nextInt(grid.size());
+        visited.set(stack[0]);
+        int top = 1;
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int count = 0;
+            for (byte dir : MazeGrid.DIRECTIONS) {
+                if (grid.hasNeighbour(cell, dir) && !visited.get(grid.neighbour(cell, dir))) {
+                    options[count] = grid.neighbour(cell, dir);
+                    count += 1;
+                }
+            }
+
+            if (count == 0) {
+                top -= 1;
+            }
+
+            else {
+                int next = options[rand.nextInt(count)];
+                grid.carve(cell, next);
+                visited.set(next);
+                stack[top] = next;
+                top += 1;
+            }
+        }
+        return grid;
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "backtracker";
+    }
+}
+
+// builds uniformly random mazes with Wilson's algorithm: random walks from
+// each cell outside the tree until they hit it, keeping the last exit taken
+// from every cell so loops erase themselves
+class WilsonGenerator implements IMazeGenerator {
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        SplittableRandom rand = new SplittableRandom(seed);
+        BitSet inTree = new BitSet(grid.size());
+        // the cell each walk last left every cell for
+        int[] exits = new int[grid.size()];
+        inTree.set(rand.nextInt(grid.size()));
+        for (int start = 0; start < grid.size(); start += 1) {
+            int cell = start;
+            while (!inTree.get(cell)) {
+                exits[cell] = this.randomNeighbour(grid, cell, rand);
+                cell = exits[cell];
+            }
+
+            cell = start;
+            while (!inTree.get(cell)) {
+                inTree.set(cell);
+                grid.carve(cell, exits[cell]);
+                cell = exits[cell];
+            }
+        }
+        return grid;
+    }
+
+    // returns a random cell next to the given one
+    int randomNeighbour(MazeGrid grid, int cell, SplittableRandom rand) {
+        byte dir = MazeGrid.DIRECTIONS[rand.nextInt(4)];
+        while (!grid.hasNeighbour(cell, dir)) {
+            dir = MazeGrid.DIRECTIONS[rand.nextInt(4)];
+        }
+        return grid.neighbour(cell, dir);
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "wilson";
+    }
+}
+
+// to represent somewhere rows of a maze can be sent as they are made
+interface IRowSink {
+    // EFFECT: takes row y, packed like MazeGrid.bits but starting at the
+    // row's first cell, the array is reused for the next row
+    void row(int y, byte[] bits);
+
+    // EFFECT: takes note that the last row has been sent
+    void finish();
+}
+
+// copies each row into a MazeGrid
+class GridRowSink implements IRowSink {
+    // the maze being filled in
+    MazeGrid grid;
+
+    GridRowSink(MazeGrid grid) {
+        this.grid = grid;
+    }
+
+    // EFFECT: opens the walls of row y that the bits say are open
+    public void row(int y, byte[] bits) {
+        this.grid.setRow(y, bits);
+    }
+
+    // nothing is left to do at the end
+    public void finish() {
+        // the grid is already complete
+    }
+}
+
+// writes rows straight to a channel, such as a maze file, packing them one
+// after another with no padding between rows, just like MazeGrid.bits
+class ChannelRowSink implements IRowSink {
+    // where the rows go
+    WritableByteChannel channel;
+    // bytes waiting to be written
+    ByteBuffer out = ByteBuffer.allocate(1 << 16);
+    // the byte being filled in
+    int current = 0;
+    // the number of cells in a row
+    int width;
+    // how many cells have been packed so far
+    long cells = 0;
+
+    ChannelRowSink(WritableByteChannel channel, int width) {
+        this.channel = channel;
+        this.width = width;
+    }
+
+    // EFFECT: packs the row's width cells onto the end of what has been
+    // written, leaving out the padding at the end of the row's last byte
+    public void row(int y, byte[] bits) {
+        for (int x = 0; x < this.width; x += 1) {
+            int pair = bits[x >> 2] >> ((x & 3) * 2) & 3;
+            this.current |= pair << ((int) (this.cells & 3) * 2);
+            this.cells += 1;
+            if ((this.cells & 3) == 0) {
+                this.put();
+            }
+        }
+    }
+
+    // EFFECT: writes out the last, partly filled byte and anything waiting
+    public void finish() {
+        if ((this.cells & 3) != 0) {
+            this.put();
+        }
+        this.flush();
+    }
+
+    // EFFECT: moves the current byte into the buffer, writing the buffer out
+    // when it is full
+    void put() {
+        this.out.put((byte) this.current);
+        this.current = 0;
+        if (!this.out.hasRemaining()) {
+            this.flush();
+        }
+    }
+
+    // EFFECT: writes the buffer out to the channel
+    void flush() {
+        this.out.flip();
+        try {
+            while (this.out.hasRemaining()) {
+                this.channel.write(this.out);
+            }
+        }
+
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.out.clear();
+    }
+}
+
+// makes mazes a row at a time with Eller's algorithm, sending every row on as
+// soon as it is done and only ever holding the sets of the current row, so it
+// needs O(width) memory however long the maze is
+class EllerRows {
+
+    // returns how many bytes a packed row of the given width takes
+    static int rowBytes(int width) {
+        return (width + 3) / 4;
+    }
+
+    // EFFECT: sends the rows of a length x width maze to the sink, the same
+    // rows for the same seed
+    void stream(int length, int width, long seed, IRowSink sink) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        byte[] bits = new byte[rowBytes(width)];
+        // the sets of this row's cells and the next row's, by column
+        UnionFind row = new UnionFind(width);
+        UnionFind next = new UnionFind(width);
+        // how many of each set's cells are still to be looked at
+        int[] left = new int[width];
+        // the first column each set continues into on the next row, or -1
+        int[] below = new int[width];
+        for (int y = 0; y < length; y += 1) {
+            boolean lastRow = y == length - 1;
+            Arrays.fill(bits, (byte) 0);
+            // join neighbours in different sets, all of them on the last row
+            for (int x = 0; x < width - 1; x += 1) {
+                if ((lastRow || rand.nextBoolean()) && row.union(x, x + 1)) {
+                    bits[x >> 2] |= 1 << ((x & 3) * 2);
+                }
+            }
+
+            if (!lastRow) {
+                Arrays.fill(left, 0);
+                Arrays.fill(below, -1);
+                for (int x = 0; x < width; x += 1) {
+                    left[row.find(x)] += 1;
+                }
+                // every set goes down at least once, the rest is a coin flip
+                next.reset();
+                for (int x = 0; x < width; x += 1) {
+                    int set = row.find(x);
+                    left[set] -= 1;
+                    if (rand.nextBoolean() || (left[set] == 0 && below[set] == -1)) {
+                        bits[x >> 2] |= 2 << ((x & 3) * 2);
+                        if (below[set] == -1) {
+                            below[set] = x;
+                        }
+
+                        else {
+                            next.union(x, below[set]);
+                        }
+                    }
+                }
+                UnionFind temp = row;
+                row = next;
+                next = temp;
+            }
+            sink.row(y, bits);
+        }
+        sink.finish();
+    }
+
+    // EFFECT: writes a length x width maze to a maze file as its rows are
+    // made, without holding the maze in memory
+    void streamToFile(int length, int width, long seed, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MazeFile format = new MazeFile();
+            format.writeFully(channel, format.header(length, width, seed, "eller"));
+            this.stream(length, width, seed, new ChannelRowSink(channel, width));
+        }
+
+        finally {
+            channel.close();
+        }
+    }
+}
+
+// builds mazes a row at a time with Eller's algorithm, only ever holding
+// the sets of the current row, so its working memory is O(width)
+class EllerGenerator implements IMazeGenerator {
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        new EllerRows().stream(length, width, seed, new GridRowSink(grid));
+        return grid;
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "eller";
+    }
+}
+
+// builds mazes with the sidewinder algorithm: each row is cut into runs of
+// cells joined east to west, and every run opens north from one random cell
+class SidewinderGenerator implements IMazeGenerator {
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for (int x = 0; x < width - 1; x += 1) {
+            grid.carve(x, x + 1);
+        }
+
+        for (int y = 1; y < length; y += 1) {
+            int base = y * width;
+            int runStart = 0;
+            for (int x = 0; x < width; x += 1) {
+                if (x == width - 1 || rand.nextBoolean()) {
+                    int up = base + runStart + rand.nextInt(x - runStart + 1);
+                    grid.carve(up, up - width);
+                    runStart = x + 1;
+                }
+
+                else {
+                    grid.carve(base + x, base + x + 1);
+                }
+            }
+        }
+        return grid;
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "sidewinder";
+    }
+}
+
+// builds mazes where every cell opens either north or west, picked at random
+// whenever it has both, which needs no memory beyond the maze
+class BinaryTreeGenerator implements IMazeGenerator {
+
+    // returns a length x width maze, the same one for the same seed
+    public MazeGrid generate(int length, int width, long seed) {
+        MazeGrid grid = new MazeGrid(length, width);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for (int cell = 1; cell < grid.size(); cell += 1) {
+            boolean north = grid.hasNeighbour(cell, MazeGrid.NORTH);
+            boolean west = grid.hasNeighbour(cell, MazeGrid.WEST);
+            if (north && (!west || rand.nextBoolean())) {
+                grid.carve(cell, cell - width);
+            }
+
+            else {
+                grid.carve(cell, cell - 1);
+            }
+        }
+        return grid;
+    }
+
+    // returns the name shown for this generator
+    public String name() {
+        return "binary tree";
+    }
+}
+
+// the colours and images a maze is drawn with, made once and shared by
+// every frame
+class Palette {
+    // an empty cell, and the status line behind its text
+    Color floor = Color.WHITE;
+    // the wall lines, and the status line's text
+    Color wall = Color.BLACK;
+    // the cell each player stands on
+    Color player = Color.BLUE;
+    // the cell each player starts from
+    Color start = Color.GREEN;
+    // the cell each player is heading for
+    Color end = Color.MAGENTA;
+    // a cell a search has expanded or a player has walked through
+    Color searched = Color.CYAN;
+    // a cell on the solution being shown
+    Color solution = Color.RED;
+    // the message shown when player 1 reaches their goal
+    WorldImage oneWins = new TextImage("Player 1 wins!", Color.BLACK);
+    // the message shown when player 2 reaches their goal
+    WorldImage twoWins = new TextImage("Player 2 wins!", Color.BLACK);
+}
+
+// to represent a maze
+class Maze extends World {
+    // current position of player 1
+    int playerx = 0;
+    int playery = 0;
+    // current position of player 2
+    int player2x = this.width - 1;
+    int player2y = 0;
+    // the open walls of the maze
+    AGrid grid = new MazeGrid(0, 0);
+    // the length of the maze
+    int length;
+    // the width of the maze
+    int width;
+    // the seed the current maze was generated from
+    long seed;
+    // where the seeds of regenerated mazes come from
+    SplittableRandom seeds = new SplittableRandom(0);
+    // the generators g cycles through
+    IMazeGenerator[] generators = new Engines().generators();
+    // the generator that carves new mazes
+    IMazeGenerator generator = this.generators[0];
+    // the searches being animated, each a little further along every tick
+    ArrayList<ASearch> searches = new ArrayList<ASearch>();
+    // how many steps each animated search takes per tick
+    int searchSpeed = 1;
+    // the work the last run of each search did, by search name
+    HashMap<String, SearchStats> stats = new HashMap<String, SearchStats>();
+    // answers path queries on this maze, built when first needed
+    PathIndex paths = null;
+    // the solutions found on this maze, by search name and endpoints
+    HashMap<String, int[]> solutions = new HashMap<String, int[]>();
+    // show solution or not
+    boolean showSolution = false;
+    // the search whose solution is shown, or null
+    String solvedBy = null;
+    // solution trail, from the end cell back to the start
+    int[] solution = new int[0];
+    // the cells of the solution trail
+    BitSet solutionCells = new BitSet();
+    // the cells on each player's trail
+    BitSet trailCells = new BitSet();
+    BitSet trail2Cells = new BitSet();
+    // the maze as drawn so far, walls and all, painted a cell at a time
+    ComputedPixelImage canvas = null;
+    // the cells that have changed since the canvas was last painted
+    IntDeque dirty = new IntDeque();
+    // whether every cell of the canvas must be painted again
+    boolean repaintAll = true;
+    // the size cells are drawn at before any zooming
+    public static final int CELL_SIZE = 10;
+    // the largest window, in pixels, larger mazes scroll
+    static final int WINDOW_WIDTH = 1000;
+    static final int WINDOW_LENGTH = 700;
+    // the cell sizes the zoom keys step through
+    static final int[] ZOOMS = {1, 2, 3, 5, 10, 20, 40};
+    // below this cell size there is no room for wall lines, and cells are
+    // drawn as blocks of pixels straight from the wall bits
+    static final int DETAIL_SIZE = 3;
+    // the height of the status line along the bottom of the window
+    static final int STATUS_SIZE = 18;
+    // how many pixels across each cell is drawn
+    int cellSize = CELL_SIZE;
+    // the cells the canvas shows across and down
+    int viewWidth = 0;
+    int viewLength = 0;
+    // the top left cell in view
+    int cameraX = 0;
+    int cameraY = 0;
+    // the pixel each column and each row of cells in view starts at
+    int[] cellX = new int[0];
+    int[] cellY = new int[0];
+    // the scene holding the canvas, and the scenes shown when a player wins
+    WorldScene scene = null;
+    WorldScene oneWinsScene = null;
+    WorldScene twoWinsScene = null;
+    // the status line the scene was built with
+    String shownStatus = "";
+    // the colours and images the maze is drawn with
+    Palette palette = new Palette();
+    // show path toggle
+    boolean showPath = true;
+    // player 2 present
+    boolean player2 = false;
+
+    Maze(int length, int width) {
+        this(length, width, new SplittableRandom().nextLong());
+    }
+
+    // the same seed always gives the same maze
+    Maze(int length, int width, long seed) {
+        this(length, width, seed, new KruskalGenerator());
+    }
+
+    // plays a maze that has already been made, such as one mapped from a file
+    Maze(AGrid grid, long seed) {
+        this.length = grid.length;
+        this.width = grid.width;
+        this.seed = seed;
+        this.seeds = new SplittableRandom(seed);
+        this.grid = grid;
+    }
+
+    // carves the maze with the given generator
+    Maze(int length, int width, long seed, IMazeGenerator generator) {
+        this.length = length;
+        this.width = width;
+        this.seed = seed;
+        this.seeds = new SplittableRandom(seed);
+        this.generator = generator;
+        this.grid = generator.generate(length, width, seed);
+    }
+
+    // Constructor only used to test methods inside real constructor
+    Maze(int length, int width, String forTest) {
+        this.length = length;
+        this.width = width;
+        this.grid = new MazeGrid(length, width);
+    }
+
+    // EFFECT: creates a new Maze
+    void mazeGen(int length, int width, boolean player2) {
+        this.mazeGen(length, width, player2, this.generator);
+    }
+
+    // EFFECT: creates a new Maze with the given generator
+    void mazeGen(int length, int width, boolean player2, IMazeGenerator generator) {
+        this.length = length;
+        this.width = width;
+        this.playerx = 0;
+        this.playery = 0;
+        this.player2x = this.width - 1;
+        this.player2y = 0;
+        this.trailCells = new BitSet();
+        this.trail2Cells = new BitSet();
+        this.canvas = null;
+        this.cameraX = 0;
+        this.cameraY = 0;
+        this.scene = null;
+        this.oneWinsScene = null;
+        this.twoWinsScene = null;
+        this.dirty.clear();
+        this.repaintAll = true;
+        this.player2 = player2;
+        // drops any search still running on the old maze
+        this.searches = new ArrayList<ASearch>();
+        this.stats = new HashMap<String, SearchStats>();
+        this.paths = null;
+        this.solutions = new HashMap<String, int[]>();
+        this.showSolution = false;
+        this.solvedBy = null;
+        this.solution = new int[0];
+        this.solutionCells = new BitSet();
+        this.seed = this.seeds.nextLong();
+        this.generator = generator;
+        this.grid = generator.generate(length, width, this.seed);
+    }
+
+    // checks if a horizontal wall should be added
+    boolean addRightWall(int x, int y) {
+        return !this.grid.isOpen(this.grid.index(x, y), MazeGrid.NORTH);
+    }
+
+    // checks if a vertical wall should be added
+    boolean addDownWall(int x, int y) {
+        return !this.grid.isOpen(this.grid.index(x, y), MazeGrid.WEST);
+    }
+
+    // returns the solution of a depth first search on the graph
+    int[] depthFirst() {
+        return this.solve(new DepthFirstSearch(this.grid, 0, this.grid.size() - 1));
+    }
+
+    // returns the solution of a breadth first search on the graph
+    int[] breadthFirst() {
+        return this.solve(new BreadthFirstSearch(this.grid, 0, this.grid.size() - 1));
+    }
+
+    // returns the solution of an A* search on the graph
+    int[] aStar() {
+        return this.solve(new AStarSearch(this.grid, 0, this.grid.size() - 1));
+    }
+
+    // returns the solution found by searching breadth first from the start
+    // and the end at once until the two searches meet
+    int[] bidirectional() {
+        return this.solve(new BidirectionalSearch(this.grid, 0, this.grid.size() - 1));
+    }
+
+    // returns the solution of the search, run all at once unless the same
+    // search has already solved this maze
+    int[] solve(ASearch search) {
+        int[] sol = this.solutions.get(this.solutionKey(search));
+        if (sol == null) {
+            search.run();
+            sol = this.finish(search);
+        }
+        return sol;
+    }
+
+    // EFFECT: starts animating the search, one bit at a time on each tick,
+    // or shows its solution straight away if it has already been found. A
+    // search the same as one still running is not started again
+    void startSearch(ASearch search) {
+        String key = this.solutionKey(search);
+        for (int i = 0; i < this.searches.size(); i += 1) {
+            ASearch running = this.searches.get(i);
+            if (!running.finished && this.solutionKey(running).equals(key)) {
+                return;
+            }
+        }
+        int[] sol = this.solutions.get(key);
+        if (sol == null) {
+            search.recent = new IntDeque();
+            this.searches.add(search);
+        }
+
+        else {
+            this.revealSolution(search.name(), sol);
+        }
+    }
+
+    // EFFECT: records the finished search's stats and remembers its solution,
+    // which is returned
+    int[] finish(ASearch search) {
+        int[] sol = search.solution();
+        this.stats.put(search.name(), search.stats());
+        this.solutions.put(this.solutionKey(search), sol);
+        return sol;
+    }
+
+    // returns the key the search's solution is remembered by
+    String solutionKey(ASearch search) {
+        return search.name() + " " + search.start + " " + search.goal;
+    }
+
+    // returns the cells on the way from start to goal, both included
+    int[] path(int start, int goal) {
+        return this.pathIndex().path(start, goal);
+    }
+
+    // returns the number of steps from start to goal
+    int distance(int start, int goal) {
+        return this.pathIndex().distance(start, goal);
+    }
+
+    // returns the path index of this maze, building it the first time
+    PathIndex pathIndex() {
+        if (this.paths == null) {
+            this.paths = new PathIndex(this.grid);
+        }
+        return this.paths;
+    }
+
+    // draws the world, the canvas brought up to date first. The scenes are
+    // kept from frame to frame, since the canvas they hold is painted in place
+    public WorldScene makeScene() {
+        if (this.player2) {
+            if (this.playerx == this.width - 1 && this.playery == this.length - 1) {
+                if (this.oneWinsScene == null) {
+                    this.oneWinsScene = this.endScene(this.palette.oneWins);
+                }
+                return this.oneWinsScene;
+            } 
+            
+            else if (this.player2x == 0 && this.player2y == this.length - 1) {
+                if (this.twoWinsScene == null) {
+                    this.twoWinsScene = this.endScene(this.palette.twoWins);
+                }
+                return this.twoWinsScene;
+            }
+        }
+        this.paint();
+        String status = this.status();
+        if (this.scene == null || !status.equals(this.shownStatus)) {
+            int sceneWidth = this.viewWidth * this.cellSize;
+            int sceneLength = this.viewLength * this.cellSize;
+            this.scene = this.getEmptyScene();
+            this.scene.placeImageXY(this.canvas, sceneWidth / 2, sceneLength / 2);
+            if (status.length() > 0) {
+                this.scene.placeImageXY(new RectangleImage(sceneWidth, STATUS_SIZE, 
+                        OutlineMode.SOLID, this.palette.floor), sceneWidth / 2, 
+                        sceneLength - STATUS_SIZE / 2);
+                this.scene.placeImageXY(new TextImage(status, STATUS_SIZE - 4, 
+                        this.palette.wall), sceneWidth / 2, sceneLength - STATUS_SIZE / 2);
+            }
+            this.shownStatus = status;
+        }
+        return this.scene;
+    }
+
+    // returns a scene with the message in the middle of the window
+    WorldScene endScene(WorldImage message) {
+        WorldScene world = new WorldScene(this.width, this.length);
+        world.placeImageXY(message, this.windowWidth() / 2, this.windowLength() / 2);
+        return world;
+    }
+
+    // EFFECT: brings the canvas up to date, painting every cell in view when
+    // the whole maze or the camera has changed and only the dirty cells
+    // otherwise
+    void paint() {
+        for (int i = 0; i < this.searches.size(); i += 1) {
+            IntDeque recent = this.searches.get(i).recent;
+            while (recent != null && recent.size() > 0) {
+                this.dirty.addAtTail(recent.removeFromHead());
+            }
+        }
+
+        if (this.canvas == null) {
+            this.viewWidth = Math.max(1, Math.min(this.width, this.windowWidth() / this.cellSize));
+            this.viewLength = Math.max(1, 
+                    Math.min(this.length, this.windowLength() / this.cellSize));
+            this.canvas = new ComputedPixelImage(this.viewWidth * this.cellSize, 
+                    this.viewLength * this.cellSize);
+            this.cellX = this.origins(this.viewWidth);
+            this.cellY = this.origins(this.viewLength);
+            this.scene = null;
+            this.repaintAll = true;
+        }
+
+        if (this.follow()) {
+            this.repaintAll = true;
+        }
+
+        if (this.repaintAll) {
+            for (int y = this.cameraY; y < this.cameraY + this.viewLength; y += 1) {
+                for (int x = this.cameraX; x < this.cameraX + this.viewWidth; x += 1) {
+                    this.paintCell(this.grid.index(x, y));
+                }
+            }
+            this.dirty.clear();
+            this.repaintAll = false;
+        }
+
+        else {
+            while (this.dirty.size() > 0) {
+                int cell = this.dirty.removeFromHead();
+                if (this.inView(cell)) {
+                    this.paintCell(cell);
+                }
+            }
+        }
+    }
+
+    // EFFECT: moves the camera to keep player 1, or both players if they
+    // fit, in view, and returns whether it moved
+    boolean follow() {
+        int x = this.aim(this.cameraX, this.viewWidth, this.width, this.playerx, this.playerx);
+        int y = this.aim(this.cameraY, this.viewLength, this.length, this.playery, this.playery);
+        if (this.player2 && this.fits(this.viewWidth, this.playerx, this.player2x) 
+                && this.fits(this.viewLength, this.playery, this.player2y)) {
+            x = this.aim(this.cameraX, this.viewWidth, this.width, 
+                    Math.min(this.playerx, this.player2x), Math.max(this.playerx, this.player2x));
+            y = this.aim(this.cameraY, this.viewLength, this.length, 
+                    Math.min(this.playery, this.player2y), Math.max(this.playery, this.player2y));
+        }
+        boolean moved = x != this.cameraX || y != this.cameraY;
+        this.cameraX = x;
+        this.cameraY = y;
+        return moved;
+    }
+
+    // returns where the camera should start along one side of the maze, given
+    // how many cells it shows and the span of cells, low to high, to keep in
+    // sight. It stays put while the span is a quarter view from either edge,
+    // and otherwise centres on the span
+    int aim(int camera, int view, int size, int low, int high) {
+        int margin = view / 4;
+        if (low >= camera + margin && high < camera + view - margin) {
+            return camera;
+        }
+
+        else {
+            return Math.max(0, Math.min(size - view, (low + high) / 2 - view / 2));
+        }
+    }
+
+    // checks if two cells this far apart fit between the margins of a view
+    boolean fits(int view, int a, int b) {
+        return Math.abs(a - b) < view - 2 * (view / 4);
+    }
+
+    // checks if the cell is inside the part of the maze the camera shows
+    boolean inView(int cell) {
+        int x = cell % this.width;
+        int y = cell / this.width;
+        return x >= this.cameraX && x < this.cameraX + this.viewWidth 
+                && y >= this.cameraY && y < this.cameraY + this.viewLength;
+    }
+
+    // returns the width of the window in pixels, enough for the whole maze
+    // at the starting cell size if it fits
+    int windowWidth() {
+        return Math.min(this.width * CELL_SIZE, WINDOW_WIDTH);
+    }
+
+    // returns the height of the window in pixels
+    int windowLength() {
+        return Math.min(this.length * CELL_SIZE, WINDOW_LENGTH);
+    }
+
+    // EFFECT: moves the given number of steps through the zoom levels,
+    // starting the view over at the new size
+    void zoom(int steps) {
+        int level = 0;
+        while (level < ZOOMS.length - 1 && ZOOMS[level] < this.cellSize) {
+            level += 1;
+        }
+        level = Math.max(0, Math.min(ZOOMS.length - 1, level + steps));
+        if (ZOOMS[level] != this.cellSize) {
+            this.cellSize = ZOOMS[level];
+            this.canvas = null;
+            this.cameraX = 0;
+            this.cameraY = 0;
+        }
+    }
+
+    // returns the pixel each of the given number of cells starts at
+    int[] origins(int cells) {
+        int[] origins = new int[cells];
+        for (int i = 0; i < cells; i += 1) {
+            origins[i] = i * this.cellSize;
+        }
+        return origins;
+    }
+
+    // EFFECT: paints the cell, which must be in view, in its colour, then its
+    // north and west walls
+    void paintCell(int cell) {
+        int x = cell % this.width;
+        int y = cell / this.width;
+        int left = this.cellX[x - this.cameraX];
+        int top = this.cellY[y - this.cameraY];
+        if (this.cellSize < DETAIL_SIZE) {
+            this.paintBlock(cell, left, top);
+        }
+
+        else {
+            this.canvas.setPixels(left, top, this.cellSize, this.cellSize, this.colorOf(cell));
+            if (this.addRightWall(x, y)) {
+                this.canvas.setPixels(left, top, this.cellSize, 1, this.palette.wall);
+            }
+
+            if (this.addDownWall(x, y)) {
+                this.canvas.setPixels(left, top, 1, this.cellSize, this.palette.wall);
+            }
+        }
+    }
+
+    // EFFECT: paints a cell too small for wall lines pixel by pixel from its
+    // wall bits. At two pixels the top left pixel is a corner post, the top
+    // right and bottom left are the north and west walls or passages, and the
+    // bottom right is the cell. At one pixel a cell walled on the north and
+    // west is drawn as wall and any other as itself, which keeps the shape
+    // of the corridors when nothing else could be seen
+    void paintBlock(int cell, int left, int top) {
+        Color color = this.colorOf(cell);
+        boolean north = !this.grid.isOpen(cell, MazeGrid.NORTH);
+        boolean west = !this.grid.isOpen(cell, MazeGrid.WEST);
+        if (this.cellSize == 1) {
+            if (north && west && color == this.palette.floor) {
+                color = this.palette.wall;
+            }
+            this.canvas.setPixel(left, top, color);
+        }
+
+        else {
+            this.canvas.setPixel(left, top, this.palette.wall);
+            this.canvas.setPixel(left + 1, top, north ? this.palette.wall : color);
+            this.canvas.setPixel(left, top + 1, west ? this.palette.wall : color);
+            this.canvas.setPixel(left + 1, top + 1, color);
+        }
+    }
+
+    // returns the colour the cell is drawn in, whatever is on top of it
+    Color colorOf(int cell) {
+        int x = cell % this.width;
+        int y = cell / this.width;
+        boolean twoPaths = this.showPath && this.player2;
+        if (cell == this.grid.size() - 1) {
+            return this.palette.end;
+        }
+
+        else if (x == this.playerx && y == this.playery) {
+            return this.palette.player;
+        }
+
+        else if (cell == 0) {
+            return this.palette.start;
+        }
+
+        else if (this.showSolution && this.solutionCells.get(cell)) {
+            return this.palette.solution;
+        }
+
+        else if (this.searched(cell)) {
+            return this.palette.searched;
+        }
+
+        else if (twoPaths && x == this.player2x && y == this.player2y) {
+            return this.palette.player;
+        }
+
+        else if (twoPaths && x == this.width - 1 && y == 0) {
+            return this.palette.start;
+        }
+
+        else if (twoPaths && x == 0 && y == this.length - 1) {
+            return this.palette.end;
+        }
+
+        else if (this.showPath && (this.trailCells.get(cell) 
+                || (this.player2 && this.trail2Cells.get(cell)))) {
+            return this.palette.searched;
+        }
+
+        else {
+            return this.palette.floor;
+        }
+    }
+
+    // checks if any of the searches has expanded the cell
+    boolean searched(int cell) {
+        boolean searched = false;
+        for (int i = 0; i < this.searches.size(); i += 1) {
+            searched = searched || this.searches.get(i).visited.get(cell);
+        }
+        return searched;
+    }
+
+    // EFFECT: marks the cell to be painted again
+    void markDirty(int cell) {
+        if (cell >= 0 && cell < this.grid.size()) {
+            this.dirty.addAtTail(cell);
+        }
+    }
+
+    // EFFECT: shows the given solution in place of the one shown before
+    void revealSolution(String name, int[] sol) {
+        for (int cell : this.solution) {
+            this.markDirty(cell);
+        }
+        this.solutionCells.clear();
+        for (int cell : sol) {
+            this.solutionCells.set(cell);
+            this.markDirty(cell);
+        }
+        this.solution = sol;
+        this.solvedBy = name;
+        this.showSolution = true;
+    }
+
+    // returns the line under the maze telling how much work the search whose
+    // solution is shown did, or nothing while no solution is shown
+    String status() {
+        if (this.showSolution && this.solvedBy != null) {
+            return this.solvedBy + ": " + this.stats.get(this.solvedBy).report();
+        }
+
+        else {
+            return "";
+        }
+    }
+
+    // EFFECT: updates the Maze and "Player" depending on key press, marking
+    // the cells the players left and entered to be painted again
+    public void onKeyEvent(String key) {
+        int before1 = this.grid.index(this.playerx, this.playery);
+        int before2 = this.grid.index(this.player2x, this.player2y);
+        this.handleKey(key);
+        this.markDirty(before1);
+        this.markDirty(before2);
+        this.markDirty(this.grid.index(this.playerx, this.playery));
+        this.markDirty(this.grid.index(this.player2x, this.player2y));
+    }
+
+    // EFFECT: updates the Maze and "Player" depending on key press
+    void handleKey(String key) {
+        if (key.equals("n")) {
+            this.mazeGen(this.length, this.width, false);
+        }
+        // manual player movement
+        if (key.equals("down")) {
+            this.trailCells.set(this.grid.index(this.playerx, this.playery));
+            if (this.canMove(this.playerx, this.playery, MazeGrid.SOUTH)) {
+                this.playery += 1;
+            }
+        }
+
+        if (key.equals("up")) {
+            this.trailCells.set(this.grid.index(this.playerx, this.playery));
+            if (this.canMove(this.playerx, this.playery, MazeGrid.NORTH)) {
+                this.playery -= 1;
+            }
+        }
+        if (key.equals("right")) {
+            this.trailCells.set(this.grid.index(this.playerx, this.playery));
+            if (this.canMove(this.playerx, this.playery, MazeGrid.EAST)) {
+                this.playerx += 1;
+            }
+        }
+        if (key.equals("left")) {
+            this.trailCells.set(this.grid.index(this.playerx, this.playery));
+            if (this.canMove(this.playerx, this.playery, MazeGrid.WEST)) {
+                this.playerx -= 1;
+            }
+        }
+        if (key.equals("j")) {
+            this.startSearch(new DepthFirstSearch(this.grid, 0, this.grid.size() - 1));
+        }
+        if (key.equals("k")) {
+            this.startSearch(new BreadthFirstSearch(this.grid, 0, this.grid.size() - 1));
+        }
+        if (key.equals("l")) {
+            this.startSearch(new AStarSearch(this.grid, 0, this.grid.size() - 1));
+        }
+        if (key.equals("h")) {
+            this.startSearch(new BidirectionalSearch(this.grid, 0, this.grid.size() - 1));
+        }
+        if (key.equals("2")) {
+            this.mazeGen(this.length, this.width, true);
+        }
+        if (key.equals("1")) {
+            this.mazeGen(this.length, this.width, false);
+        }
+        if (key.equals("g")) {
+            this.mazeGen(this.length, this.width, this.player2, this.nextGenerator());
+        }
+        if (this.player2) {
+            if (key.equals("s")) {
+                this.trail2Cells.set(this.grid.index(this.player2x, this.player2y));
+                if (this.canMove(this.player2x, this.player2y, MazeGrid.SOUTH)) {
+                    this.player2y += 1;
+                }
+            }
+
+            if (key.equals("w")) {
+                this.trail2Cells.set(this.grid.index(this.player2x, this.player2y));
+                if (this.canMove(this.player2x, this.player2y, MazeGrid.NORTH)) {
+                    this.player2y -= 1;
+                }
+            }
+            if (key.equals("d")) {
+                this.trail2Cells.set(this.grid.index(this.player2x, this.player2y));
+                if (this.canMove(this.player2x, this.player2y, MazeGrid.EAST)) {
+                    this.player2x += 1;
+                }
+            }
+            if (key.equals("a")) {
+                this.trail2Cells.set(this.grid.index(this.player2x, this.player2y));
+                if (this.canMove(this.player2x, this.player2y, MazeGrid.WEST)) {
+                    this.player2x -= 1;
+                }
+            }
+            if (key.equals("t")) {
+                this.showPath = !this.showPath;
+                this.repaintAll = true;
+            }
+        }
+        if (key.equals("=") || key.equals("+")) {
+            this.zoom(1);
+        }
+        if (key.equals("-")) {
+            this.zoom(-1);
+        }
+    }
+
+    // returns the generator after the one with the current one's name in
+    // generators, or the first one
+    IMazeGenerator nextGenerator() {
+        int i = 0;
+        while (i < this.generators.length 
+                && !this.generators[i].name().equals(this.generator.name())) {
+            i += 1;
+        }
+
+        if (i >= this.generators.length - 1) {
+            return this.generators[0];
+        }
+
+        else {
+            return this.generators[i + 1];
+        }
+    }
+
+    // checks if the two cells are connected by a passage
+    boolean canWalk(int x1, int y1, int x2, int y2) {
+        return this.grid.canWalk(this.grid.index(x1, y1), this.grid.index(x2, y2));
+    }
+
+    // checks if a player at x, y can step in the given direction
+    boolean canMove(int x, int y, byte direction) {
+        return this.grid.isOpen(this.grid.index(x, y), direction);
+    }
+
+    // EFFECT: updates maze every tick
+    public void onTick() {
+        if (playerx == this.width - 1 && playery == this.length - 1 && !showSolution) {
+            this.revealSolution("depth first", this.depthFirst());
+        }
+        // moves each running search along, showing the solution of any that
+        // has just finished
+        for (int i = 0; i < this.searches.size(); i += 1) {
+            ASearch search = this.searches.get(i);
+            if (!search.finished && search.step(this.searchSpeed)) {
+                this.revealSolution(search.name(), this.finish(search));
+            }
+        }
+    }
+}
+
+// the generators and searches there are, looked up by name, with nothing
+// here touching javalib so they can run headless
+class Engines {
+
+    // returns one of each generator
+    IMazeGenerator[] generators() {
+        return new IMazeGenerator[] {new KruskalGenerator(), new ParallelKruskalGenerator(), 
+            new BacktrackerGenerator(), new WilsonGenerator(), new EllerGenerator(), 
+            new SidewinderGenerator(), new BinaryTreeGenerator()};
+    }
+
+    // returns the names of the searches
+    String[] solvers() {
+        return new String[] {"depth first", "breadth first", "a*", "bidirectional"};
+    }
+
+    // returns the generator with the given name, where dashes may stand in
+    // for spaces
+    IMazeGenerator generator(String name) {
+        String wanted = name.replace('-', ' ');
+        for (IMazeGenerator generator : this.generators()) {
+            if (generator.name().equals(wanted)) {
+                return generator;
+            }
+        }
+        throw new IllegalArgumentException("Unknown generator: " + name);
+    }
+
+    // returns the name of the search with the given name, where dashes may
+    // stand in for spaces and astar for a*, which needs quoting in a shell
+    String solverName(String name) {
+        String wanted = name.replace('-', ' ');
+        if (wanted.equals("astar")) {
+            wanted = "a*";
+        }
+        for (String solver : this.solvers()) {
+            if (solver.equals(wanted)) {
+                return solver;
+            }
+        }
+        throw new IllegalArgumentException("Unknown solver: " + name);
+    }
+
+    // returns a new search with the given name from start to goal, where
+    // dashes may stand in for spaces
+    ASearch solver(String name, AGrid grid, int start, int goal) {
+        String wanted = this.solverName(name);
+        if (wanted.equals("depth first")) {
+            return new DepthFirstSearch(grid, start, goal);
+        }
+
+        else if (wanted.equals("breadth first")) {
+            return new BreadthFirstSearch(grid, start, goal);
+        }
+
+        else if (wanted.equals("a*")) {
+            return new AStarSearch(grid, start, goal);
+        }
+
+        else if (wanted.equals("bidirectional")) {
+            return new BidirectionalSearch(grid, start, goal);
+        }
+
+        else {
+            throw new IllegalArgumentException("Unknown solver: " + name);
+        }
+    }
+}
+
+// generates and solves batches of mazes without a window, printing a line
+// per maze and a summary of the throughput, for example
+//   java MazeCli --size 1000x1000 --count 5 --generator wilson --solver astar --seed 1
+// where astar may also be given as 'a*', quoted so the shell leaves it be,
+// or with --out DIR to also write each maze as a maze file
+class MazeCli {
+    // the rows and columns of each maze
+    int length = 100;
+    int width = 100;
+    // how many mazes to make
+    int count = 1;
+    // where the seeds of the mazes come from
+    long seed = 0;
+    // the generator and search to use
+    String generator = "kruskal";
+    String solver = "breadth first";
+    // the directory maze files are written to, or null for none
+    Path out = null;
+    // whether to leave out the line per maze
+    boolean quiet = false;
+
+    public static void main(String[] args) {
+        try {
+            new MazeCli().parse(args).run(System.out);
+        }
+
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: MazeCli [--size LENGTHxWIDTH] [--count N] [--seed S] "
+                    + "[--generator NAME] [--solver NAME] [--out DIR] [--quiet]");
+            System.exit(2);
+        }
+
+        catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // EFFECT: sets the options given on the command line, and returns this
+    MazeCli parse(String[] args) {
+        int i = 0;
+        while (i < args.length) {
+            String option = args[i];
+            if (option.equals("--quiet")) {
+                this.quiet = true;
+                i += 1;
+            }
+
+            else if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+
+            else {
+                this.set(option, args[i + 1]);
+                i += 2;
+            }
+        }
+        // fails now on a name that does not exist, and reports the solver
+        // by its own name rather than an alias
+        new Engines().generator(this.generator);
+        this.solver = new Engines().solverName(this.solver);
+        return this;
+    }
+
+    // EFFECT: sets one option to the given value
+    void set(String option, String value) {
+        try {
+            if (option.equals("--size")) {
+                int x = value.indexOf('x');
+                if (x < 0) {
+                    throw new IllegalArgumentException("Size must be LENGTHxWIDTH: " + value);
+                }
+                this.length = Integer.parseInt(value.substring(0, x));
+                this.width = Integer.parseInt(value.substring(x + 1));
+                if (this.length < 1 || this.width < 1 
+                        || (long) this.length * this.width > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Size out of range: " + value);
+                }
+            }
+
+            else if (option.equals("--count")) {
+                this.count = Integer.parseInt(value);
+                if (this.count < 1) {
+                    throw new IllegalArgumentException("Count must be at least 1: " + value);
+                }
+            }
+
+            else if (option.equals("--seed")) {
+                this.seed = Long.parseLong(value);
+            }
+
+            else if (option.equals("--generator")) {
+                this.generator = value;
+            }
+
+            else if (option.equals("--solver")) {
+                this.solver = value;
+            }
+
+            else if (option.equals("--out")) {
+                this.out = Paths.get(value);
+            }
+
+            else {
+                throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + option + ": " + value);
+        }
+    }
+
+    // EFFECT: makes and solves the mazes, printing the results
+    void run(PrintStream print) throws IOException {
+        Engines engines = new Engines();
+        IMazeGenerator maker = engines.generator(this.generator);
+        SplittableRandom seeds = new SplittableRandom(this.seed);
+        if (this.out != null) {
+            Files.createDirectories(this.out);
+        }
+        long cells = (long) this.length * this.width;
+        long generating = 0;
+        long solving = 0;
+        long steps = 0;
+        for (int i = 0; i < this.count; i += 1) {
+            long mazeSeed = seeds.nextLong();
+            long start = System.nanoTime();
+            MazeGrid grid = maker.generate(this.length, this.width, mazeSeed);
+            long made = System.nanoTime() - start;
+            ASearch search = engines.solver(this.solver, grid, 0, grid.size() - 1);
+            search.run();
+            int[] solution = search.solution();
+            generating += made;
+            solving += search.nanos;
+            steps += solution.length;
+            if (this.out != null) {
+                new MazeFile().write(grid, mazeSeed, maker.name(), 
+                        this.out.resolve("maze-" + i + ".maze"));
+            }
+
+            if (!this.quiet) {
+                print.println(i + " seed " + mazeSeed + " " + maker.name() + " " 
+                        + this.length + "x" + this.width + " generated in " 
+                        + this.millis(made) + " ms, " + search.name() + " path " 
+                        + solution.length + " steps, " + search.stats().report());
+            }
+        }
+        print.println(this.count + " mazes of " + cells + " cells: " + maker.name() + " " 
+                + this.rate(cells * this.count, generating) + " Mcells/s, " + this.solver 
+                + " " + this.rate(cells * this.count, solving) + " Mcells/s, mean path " 
+                + steps / Math.max(this.count, 1) + " steps");
+    }
+
+    // returns the nanoseconds as milliseconds, to three places
+    String millis(long nanos) {
+        return String.format("%.3f", nanos / 1000000.0);
+    }
+
+    // returns millions of cells a second, to two places
+    String rate(long cells, long nanos) {
+        return String.format("%.2f", cells * 1000.0 / Math.max(nanos, 1));
+    }
+}
+
+// times maze generation on square grids of increasing size
+// run with a large heap, e.g. java -Xmx16g MazeBenchmark 30 100 1000 4000
+class MazeBenchmark {
+
+    public static void main(String[] args) {
+        int[] sides = {30, 100, 300, 1000, 2000, 4000};
+        if (args.length > 0) {
+            sides = new int[args.length];
+            for (int i = 0; i < args.length; i += 1) {
+                sides[i] = Integer.parseInt(args[i]);
+            }
+        }
+        MazeBenchmark bench = new MazeBenchmark();
+
+        for (int side : sides) {
+            bench.timeGenerate(side);
+            bench.timeEngines(side);
+            bench.timeSolvers(side);
+            bench.timeQueries(side);
+            bench.timeFrames(side);
+            bench.timeZoom(side);
+        }
+    }
+
+    // EFFECT: prints how long a side x side Maze takes to build, how many
+    // bytes per cell it holds, and how much faster the parallel generator is,
+    // both timed after warming up; the JMH GenerateBenchmark in benchmarks/
+    // gives the figures to trust
+    void timeGenerate(int side) {
+        Maze m = new Maze(side, side, side);
+        long single = this.bestTime(new KruskalGenerator(), side);
+        long parallel = this.bestTime(new ParallelKruskalGenerator(), side);
+        System.out.println(side + "x" + side + " generate: " + single / 1000000 + " ms, "
+                + (double) m.grid.packedSize() / m.grid.size() + " bytes per cell, parallel: "
+                + parallel / 1000000 + " ms on " + ForkJoinPool.commonPool().getParallelism()
+                + " threads, speedup " + String.format("%.2f", (double) single / parallel));
+    }
+
+    // returns the quickest of a few side x side mazes from the generator, in
+    // nanoseconds, timed once a few more have let the JIT compile it
+    long bestTime(IMazeGenerator generator, int side) {
+        for (int i = 0; i < 3; i += 1) {
+            generator.generate(side, side, i);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i += 1) {
+            long start = System.nanoTime();
+            generator.generate(side, side, side + i);
+            best = Math.min(best, Math.max(System.nanoTime() - start, 1));
+        }
+        return best;
+    }
+
+    // EFFECT: prints the throughput of every generator on a side x side maze
+    // and how many bytes it allocated doing it, counted over every thread
+    void timeEngines(int side) {
+        for (IMazeGenerator generator : new Engines().generators()) {
+            long allocated = this.allocatedBytes();
+            long start = System.nanoTime();
+            generator.generate(side, side, side);
+            long took = Math.max(System.nanoTime() - start, 1);
+            allocated = this.allocatedBytes() - allocated;
+            System.out.println("  " + generator.name() + ": " + took / 1000000 + " ms, "
+                    + String.format("%.1f", (double) side * side * 1000 / took) 
+                    + " Mcells/s, " + String.format("%.2f", (double) allocated / side / side)
+                    + " bytes allocated per cell");
+        }
+    }
+
+    // EFFECT: prints how many cells each search expands solving one side x
+    // side maze, and how long it takes
+    void timeSolvers(int side) {
+        Maze m = new Maze(side, side, side);
+        m.depthFirst();
+        m.breadthFirst();
+        m.aStar();
+        m.bidirectional();
+        for (String name : new String[] {"depth first", "breadth first", "a*", "bidirectional"}) {
+            System.out.println("  solve " + name + ": " + m.stats.get(name).report());
+        }
+    }
+
+    // EFFECT: prints how long the path index of a side x side maze takes to
+    // build and how many random distance queries it then answers a second
+    void timeQueries(int side) {
+        Maze m = new Maze(side, side, side);
+        long start = System.nanoTime();
+        m.pathIndex();
+        long build = System.nanoTime() - start;
+        SplittableRandom rand = new SplittableRandom(side);
+        int queries = 1000000;
+        long total = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i += 1) {
+            total += m.distance(rand.nextInt(m.grid.size()), rand.nextInt(m.grid.size()));
+        }
+        long took = Math.max(System.nanoTime() - start, 1);
+        System.out.println("  path index: built in " + build / 1000000 + " ms, "
+                + String.format("%.2f", queries * 1000.0 / took) + " M distance queries/s, "
+                + "mean distance " + total / queries);
+    }
+
+    // EFFECT: prints the time and bytes allocated per frame on a side x side
+    // maze while player 1 walks about and a breadth first search runs
+    void timeFrames(int side) {
+        Maze m = new Maze(side, side, side);
+        m.makeScene();
+        m.onKeyEvent("k");
+        String[] keys = {"right", "down", "left", "up"};
+        // lets the JIT settle first
+        for (int i = 0; i < 2000; i += 1) {
+            m.onTick();
+            m.makeScene();
+        }
+        int frames = 10000;
+        long allocated = this.threadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i += 1) {
+            m.onKeyEvent(keys[i % 4]);
+            m.onTick();
+            m.makeScene();
+        }
+        long took = System.nanoTime() - start;
+        allocated = this.threadAllocatedBytes() - allocated;
+        System.out.println("  frames: " + String.format("%.1f", took / 1000.0 / frames) 
+                + " us, " + allocated / frames + " bytes allocated per frame");
+    }
+
+    // EFFECT: prints how long it takes to paint a full window of a side x
+    // side maze at each zoom level
+    void timeZoom(int side) {
+        Maze m = new Maze(side, side, side);
+        for (int size : Maze.ZOOMS) {
+            m.cellSize = size;
+            m.canvas = null;
+            m.makeScene();
+            long start = System.nanoTime();
+            m.repaintAll = true;
+            m.makeScene();
+            System.out.println("  repaint at " + size + " px a cell: " + m.viewWidth + "x" 
+                    + m.viewLength + " cells in " 
+                    + String.format("%.2f", (System.nanoTime() - start) / 1000000.0) + " ms");
+        }
+    }
+
+    // returns the bytes allocated so far by this thread
+    long threadAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = 
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory
+                .getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // returns the bytes allocated so far by all live threads
+    long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = 
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory
+                .getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(bytes, 0);
+        }
+        return total;
+    }
+}
+
+class ExampleMaze {
+    // deque stuff
+    Sentinel<String> s1 = new Sentinel<String>();
+    Deque<String> deque1 = new Deque<String>(s1);
+    Sentinel<String> s2 = new Sentinel<String>();
+    Node<String> n21 = new Node<String>("abc", s2, s2);
+    Node<String> n22 = new Node<String>("bcd", s2, n21);
+    Node<String> n23 = new Node<String>("cde", s2, n22);
+    Node<String> n24 = new Node<String>("def", s2, n23);
+    Deque<String> deque2 = new Deque<String>(s2);
     Sentinel<String> s3 = new Sentinel<String>();
-    Deque<String> deque3 = new Deque<String>(s3);
     Node<String> n31 = new Node<String>("zyx", s3, s3);
     Node<String> n32 = new Node<String>("yyz", s3, n31);
     Node<String> n33 = new Node<String>("aar", s3, n32);
     Node<String> n34 = new Node<String>("bet", s3, n33);
     Node<String> n35 = new Node<String>("sre", s3, n34);
+    Deque<String> deque3 = new Deque<String>(s3);
     String result = s2.print();
     String otherResult = s2.print();
     // maze
     Maze m;
-    Vertex v1 = new Vertex(10, 1, 1);
-    Vertex v2 = new Vertex(20, 2, 2);
-    Vertex v3 = new Vertex(11, 2, 2);
-    Vertex v4 = new Vertex(12, 2, 2);
-    //
-    Vertex v11 = new Vertex(0, 1, 1);
-    Vertex v21 = new Vertex(1, 2, 2);
-    Vertex v31 = new Vertex(2, 2, 2);
-    Vertex v41 = new Vertex(3, 2, 2);
-    Edge e1 = new Edge(v1, v2);
-    Edge e2 = new Edge(v1, v3);
-    Edge e3 = new Edge(v1, v4);
     HashMap<Integer, Integer> reps = new HashMap<Integer, Integer>();
 
     void testGame(Tester t) {
         m = new Maze(30, 30);
 
-        m.bigBang(m.width * Vertex.CELL_SIZE, m.length * Vertex.CELL_SIZE, .01);
+        m.bigBang(m.windowWidth(), m.windowLength(), .01);
     }
 
     void init() {
@@ -964,18 +3417,18 @@ class ExampleMaze {
         s1 = new Sentinel<String>();
         deque1 = new Deque<String>(s1);
         s2 = new Sentinel<String>();
-        deque2 = new Deque<String>(s2);
         n21 = new Node<String>("abc", s2, s2);
         n22 = new Node<String>("bcd", s2, n21);
         n23 = new Node<String>("cde", s2, n22);
         n24 = new Node<String>("def", s2, n23);
+        deque2 = new Deque<String>(s2);
         s3 = new Sentinel<String>();
-        deque3 = new Deque<String>(s3);
         n31 = new Node<String>("zyx", s3, s3);
         n32 = new Node<String>("yyz", s3, n31);
         n33 = new Node<String>("aadr", s3, n32);
         n34 = new Node<String>("bet", s3, n33);
         n35 = new Node<String>("sre", s3, n34);
+        deque3 = new Deque<String>(s3);
     }
 
     // deque testing
@@ -1072,131 +3525,1094 @@ class ExampleMaze {
         t.checkExpect(deque1.print(), "Sentinel");
     }
 
-    // maze testing
-    void testSmallerThan(Tester t) {
-        t.checkExpect(v1.smallerThan(5), false);
-        t.checkExpect(v1.smallerThan(12), true);
-        t.checkExpect(v2.smallerThan(5), false);
-        t.checkExpect(v1.smallerThan(50), true);
+    void testIntHeap(Tester t) {
+        IntHeap heap = new IntHeap(1);
+        t.checkException(new RuntimeException("Can't pop an empty heap"), heap, "pop");
+        long[] keys = {5, 3, 9, 1, 7, 3, 8};
+        for (int i = 0; i < keys.length; i += 1) {
+            heap.push(i, keys[i]);
+        }
+        t.checkExpect(heap.size(), 7);
+        t.checkExpect(heap.pop(), 3);
+        int second = heap.pop();
+        t.checkExpect(second == 1 || second == 5, true);
+        int third = heap.pop();
+        t.checkExpect(third == 1 || third == 5, true);
+        t.checkExpect(heap.pop(), 0);
+        t.checkExpect(heap.pop(), 4);
+        t.checkExpect(heap.pop(), 6);
+        t.checkExpect(heap.pop(), 2);
+        t.checkExpect(heap.size(), 0);
+    }
+
+    void testInformedSearches(Tester t) {
+        for (IMazeGenerator generator : new Maze(1, 1, 0).generators) {
+            Maze m = new Maze(31, 27, 5, generator);
+            int[] sol = m.breadthFirst();
+            t.checkExpect(m.aStar(), sol, generator.name());
+            t.checkExpect(m.bidirectional(), sol, generator.name());
+            t.checkNumRange(m.stats.get("a*").expanded, sol.length + 1, 
+                    m.stats.get("breadth first").expanded + 1);
+            t.checkNumRange(m.stats.get("bidirectional").expanded, sol.length / 2, 
+                    m.grid.size() + 1);
+        }
+        Maze one = new Maze(1, 1, 0);
+        t.checkExpect(one.aStar(), new int[0]);
+        t.checkExpect(one.bidirectional(), new int[0]);
+        t.checkExpect(one.stats.get("bidirectional").expanded, 0);
+        Maze line = new Maze(1, 12, 0);
+        t.checkExpect(line.bidirectional(), line.depthFirst());
+        t.checkExpect(line.stats.get("bidirectional").expanded, 11);
+        t.checkExpect(line.aStar().length, 11);
+        t.checkExpect(line.stats.get("a*").expanded, 12);
+        AStarSearch search = new AStarSearch(line.grid, 0, 11);
+        t.checkExpect(search.priority(0, 0), 11L << 32 | 11);
+        t.checkExpect(search.priority(5, 5), 11L << 32 | 6);
+        t.checkExpect(new AStarSearch(line.grid, 11, 0).priority(5, 2), 7L << 32 | 5);
+        line = new Maze(1, 12, 0);
+        line.onKeyEvent("l");
+        line.onKeyEvent("h");
+        t.checkExpect(line.searches.size(), 2);
+        t.checkExpect(line.searches.get(0).name(), "a*");
+        t.checkExpect(line.searches.get(1).name(), "bidirectional");
+        line.onKeyEvent("n");
+        t.checkExpect(line.stats.size(), 0);
+        t.checkExpect(line.searches.size(), 0);
+    }
+
+    void testSteppedSearches(Tester t) {
+        Maze m = new Maze(25, 25, 3);
+        int[] sol = m.breadthFirst();
+        for (ASearch search : new ASearch[] {new DepthFirstSearch(m.grid, 0, 624), 
+            new BreadthFirstSearch(m.grid, 0, 624), new AStarSearch(m.grid, 0, 624), 
+            new BidirectionalSearch(m.grid, 0, 624)}) {
+            // nothing is done until the search is stepped
+            t.checkExpect(search.expanded, 0);
+            t.checkExpect(search.step(5), false);
+            t.checkExpect(search.expanded, 5, search.name());
+            t.checkExpect(search.visited.cardinality(), 5);
+            t.checkExpect(search.solution(), new int[0]);
+            int steps = 1;
+            while (!search.step(1)) {
+                steps += 1;
+            }
+            t.checkExpect(search.finished, true);
+            t.checkExpect(search.solution(), sol, search.name());
+            t.checkNumRange(steps, search.expanded - 5, search.expanded * 4);
+            // stepping a finished search does nothing
+            int expanded = search.expanded;
+            t.checkExpect(search.step(10), true);
+            t.checkExpect(search.expanded, expanded);
+        }
+        // any start and goal, matching the path index
+        int[] route = m.path(300, 17);
+        ASearch between = new BidirectionalSearch(m.grid, 17, 300);
+        between.run();
+        int[] back = between.solution();
+        t.checkExpect(back.length, route.length - 1);
+        t.checkExpect(back[0], 300);
+        ASearch depth = new DepthFirstSearch(m.grid, 17, 300);
+        depth.run();
+        t.checkExpect(depth.solution(), back);
+        // a goal that cannot be reached
+        ASearch stuck = new BreadthFirstSearch(new MazeGrid(2, 2), 0, 3);
+        stuck.run();
+        t.checkExpect(stuck.finished, true);
+        t.checkExpect(stuck.expanded, 1);
+        t.checkExpect(stuck.solution(), new int[0]);
+        ASearch apart = new BidirectionalSearch(new MazeGrid(2, 2), 0, 3);
+        apart.run();
+        t.checkExpect(apart.solution(), new int[0]);
+    }
+
+    void testAnimatedSearch(Tester t) {
+        Maze m = new Maze(1, 6, "test");
+        MazeGrid grid = new MazeGrid(1, 6);
+        m.grid = grid;
+        for (int x = 1; x < 6; x += 1) {
+            grid.carve(x - 1, x);
+        }
+        m.onKeyEvent("k");
+        ASearch search = m.searches.get(0);
+        t.checkExpect(search.expanded, 0);
+        m.onTick();
+        t.checkExpect(search.expanded, 1);
+        t.checkExpect(m.showSolution, false);
+        m.searchSpeed = 2;
+        m.onTick();
+        t.checkExpect(search.expanded, 3);
+        m.onTick();
+        m.onTick();
+        t.checkExpect(search.finished, true);
+        t.checkExpect(m.showSolution, true);
+        t.checkExpect(m.solution, new int[] {5, 4, 3, 2, 1});
+        t.checkExpect(m.stats.get("breadth first").expanded, 6);
+        // regenerating cancels a search part way through
+        m.onKeyEvent("j");
+        m.onTick();
+        m.mazeGen(30, 30, false);
+        t.checkExpect(m.searches.size(), 0);
+        m.onTick();
+        t.checkExpect(m.solution, new int[0]);
+    }
+
+    void testPathIndex(Tester t) {
+        for (IMazeGenerator generator : new Maze(1, 1, 0).generators) {
+            Maze m = new Maze(19, 23, 6, generator);
+            PathIndex index = m.pathIndex();
+            t.checkExpect(m.pathIndex() == index, true);
+            int last = m.grid.size() - 1;
+            // the same path the searches find, turned around
+            int[] sol = m.breadthFirst();
+            int[] path = m.path(0, last);
+            t.checkExpect(path.length, sol.length + 1, generator.name());
+            t.checkExpect(path[0], 0);
+            for (int i = 0; i < sol.length; i += 1) {
+                t.checkExpect(path[path.length - 1 - i], sol[i]);
+            }
+            t.checkExpect(m.distance(0, last), sol.length);
+            SplittableRandom rand = new SplittableRandom(2);
+            for (int i = 0; i < 50; i += 1) {
+                int start = rand.nextInt(m.grid.size());
+                int goal = rand.nextInt(m.grid.size());
+                int[] route = m.path(start, goal);
+                t.checkExpect(route.length, m.distance(start, goal) + 1);
+                t.checkExpect(route[0], start);
+                t.checkExpect(route[route.length - 1], goal);
+                t.checkExpect(this.isWalk(m.grid, route), true);
+                t.checkExpect(m.distance(goal, start), m.distance(start, goal));
+            }
+        }
+        Maze one = new Maze(1, 1, 0);
+        t.checkExpect(one.path(0, 0), new int[] {0});
+        t.checkExpect(one.distance(0, 0), 0);
+        one.onKeyEvent("n");
+        t.checkExpect(one.paths, null);
+    }
+
+    // checks if each cell of the route is one open step from the one before
+    // and no cell comes up twice
+    boolean isWalk(AGrid grid, int[] route) {
+        BitSet seen = new BitSet();
+        boolean walk = true;
+        for (int i = 0; i < route.length; i += 1) {
+            walk = walk && !seen.get(route[i]) && (i == 0 || grid.canWalk(route[i - 1], route[i]));
+            seen.set(route[i]);
+        }
+        return walk;
+    }
+
+    void testPathIndexCorridor(Tester t) {
+        // a single corridor 100000 cells long, the deepest tree there is
+        MazeGrid grid = new MazeGrid(1, 100000);
+        for (int x = 1; x < 100000; x += 1) {
+            grid.carve(x - 1, x);
+        }
+        PathIndex index = new PathIndex(grid);
+        t.checkExpect(index.depth[99999], 99999);
+        t.checkExpect(index.lca(99999, 4), 4);
+        t.checkExpect(index.climb(99999, 12345), 12345);
+        t.checkExpect(index.distance(17, 99998), 99981);
+        t.checkExpect(index.path(5, 2), new int[] {5, 4, 3, 2});
+        // a cross, four arms hanging from the middle cell
+        Maze cross = new Maze(3, 3, "test");
+        MazeGrid arms = new MazeGrid(3, 3);
+        cross.grid = arms;
+        arms.carve(0, 1);
+        arms.carve(1, 2);
+        arms.carve(1, 4);
+        arms.carve(3, 4);
+        arms.carve(4, 5);
+        arms.carve(4, 7);
+        arms.carve(6, 7);
+        arms.carve(7, 8);
+        t.checkExpect(cross.pathIndex().lca(3, 5), 4);
+        t.checkExpect(cross.pathIndex().lca(6, 2), 1);
+        t.checkExpect(cross.path(3, 8), new int[] {3, 4, 7, 8});
+        t.checkExpect(cross.path(2, 6), new int[] {2, 1, 4, 7, 6});
     }
 
-    void testWallCheck(Tester t) {
-        t.checkExpect(v1.wallCheck(1, 1, 1), true);
-        t.checkExpect(v1.wallCheck(2, 1, 11), false);
-        t.checkExpect(v1.wallCheck(1, 1, 11), false);
-        t.checkExpect(v2.wallCheck(2, 2, 1), true);
-        t.checkExpect(v2.wallCheck(1, 1, 11), false);
-        t.checkExpect(v2.wallCheck(2, 2, 20), false);
+    void testSolutionCache(Tester t) {
+        Maze m = new Maze(20, 20, 7);
+        int[] sol = m.depthFirst();
+        SearchStats first = m.stats.get("depth first");
+        t.checkExpect(m.depthFirst() == sol, true);
+        t.checkExpect(m.stats.get("depth first") == first, true);
+        // each search and pair of endpoints has its own entry
+        t.checkExpect(m.breadthFirst() == sol, false);
+        t.checkExpect(m.breadthFirst(), sol);
+        t.checkExpect(m.solutions.size(), 2);
+        t.checkExpect(m.solve(new DepthFirstSearch(m.grid, 5, 0)) == sol, false);
+        t.checkExpect(m.solutions.size(), 3);
+        // a solved search is shown at once rather than animated again
+        m.onKeyEvent("j");
+        t.checkExpect(m.searches.size(), 0);
+        t.checkExpect(m.showSolution, true);
+        t.checkExpect(m.solution == sol, true);
+        // an animated search fills the cache when it finishes
+        m.onKeyEvent("l");
+        t.checkExpect(m.searches.size(), 1);
+        // pressing the key again while it runs does not start a second one
+        m.onKeyEvent("l");
+        t.checkExpect(m.searches.size(), 1);
+        m.searchSpeed = 1000;
+        m.onTick();
+        t.checkExpect(m.solutions.get("a* 0 399") == m.solution, true);
+        m.onKeyEvent("n");
+        t.checkExpect(m.solutions.size(), 0);
+        // standing on the goal solves once, not every tick
+        m = new Maze(1, 8, 2);
+        m.playerx = 7;
+        m.onTick();
+        int[] shown = m.solution;
+        t.checkExpect(shown.length, 7);
+        m.solutions.clear();
+        m.onTick();
+        m.onTick();
+        t.checkExpect(m.solutions.size(), 0);
+        t.checkExpect(m.solution == shown, true);
     }
 
-    void testConnection(Tester t) {
-        t.checkExpect(v1.connection(9, 1), true);
-        t.checkExpect(v1.connection(5, 5), true);
-        t.checkExpect(v1.connection(9, 2), false);
-        t.checkExpect(v1.connection(5, 6), false);
-        t.checkExpect(v2.connection(19, 1), true);
-        t.checkExpect(v2.connection(15, 5), true);
-        t.checkExpect(v2.connection(19, 2), false);
-        t.checkExpect(v2.connection(15, 6), false);
+    // returns the colour drawn in the middle of the cell at x, y
+    Color middle(Maze maze, int x, int y) {
+        return maze.canvas.getPixel(x * maze.cellSize + maze.cellSize / 2, 
+                y * maze.cellSize + maze.cellSize / 2);
+    }
+
+    void testPaint(Tester t) {
+        Maze m = new Maze(2, 3, "test");
+        MazeGrid grid = new MazeGrid(2, 3);
+        m.grid = grid;
+        // 0 1 2
+        // 3 4 5, open 0-1, 1-2, 1-4, 3-4, 4-5
+        grid.carve(0, 1);
+        grid.carve(1, 2);
+        grid.carve(1, 4);
+        grid.carve(3, 4);
+        grid.carve(4, 5);
+        m.makeScene();
+        t.checkExpect(m.canvas.getPixel(5, 5), Color.BLUE);
+        t.checkExpect(this.middle(m, 1, 0), Color.WHITE);
+        t.checkExpect(this.middle(m, 2, 1), Color.MAGENTA);
+        // every cell has a wall along the top of the maze
+        t.checkExpect(m.canvas.getPixel(15, 0), Color.BLACK);
+        // 1 and 4 are joined, 0 and 3 are not
+        t.checkExpect(m.canvas.getPixel(15, 10), Color.WHITE);
+        t.checkExpect(m.canvas.getPixel(5, 10), Color.BLACK);
+        // 0 and 1 are joined, 4 and 5 are joined, 2 and 5 are not
+        t.checkExpect(m.canvas.getPixel(10, 5), Color.WHITE);
+        t.checkExpect(m.canvas.getPixel(20, 15), Color.MAGENTA);
+        t.checkExpect(m.canvas.getPixel(25, 10), Color.BLACK);
+        t.checkExpect(m.dirty.size(), 0);
+        // a pixel nothing has changed is left alone from now on
+        m.canvas.setPixel(25, 15, Color.ORANGE);
+        m.onKeyEvent("right");
+        // the cells player 1 left and entered, player 2 is not on the board
+        t.checkExpect(m.dirty.size(), 2);
+        m.makeScene();
+        t.checkExpect(this.middle(m, 1, 0), Color.BLUE);
+        t.checkExpect(this.middle(m, 0, 0), Color.GREEN);
+        t.checkExpect(m.canvas.getPixel(25, 15), Color.ORANGE);
+        m.onKeyEvent("down");
+        m.makeScene();
+        t.checkExpect(this.middle(m, 1, 0), Color.CYAN);
+        t.checkExpect(this.middle(m, 1, 1), Color.BLUE);
+        // searched cells are painted as the search reaches them
+        m.onKeyEvent("k");
+        m.onTick();
+        m.onTick();
+        m.makeScene();
+        t.checkExpect(m.dirty.size(), 0);
+        t.checkExpect(m.canvas.getPixel(25, 15), Color.ORANGE);
+        m.onTick();
+        m.onTick();
+        m.onTick();
+        m.onTick();
+        m.makeScene();
+        t.checkExpect(m.showSolution, true);
+        t.checkExpect(this.middle(m, 2, 0), Color.CYAN);
+        t.checkExpect(this.middle(m, 2, 1), Color.MAGENTA);
+        t.checkExpect(this.middle(m, 1, 1), Color.BLUE);
+        t.checkExpect(this.middle(m, 1, 0), Color.RED);
+        t.checkExpect(m.solutionCells.cardinality(), 3);
+        // hiding the path paints everything again
+        m.showPath = false;
+        m.repaintAll = true;
+        m.makeScene();
+        t.checkExpect(m.canvas.getPixel(25, 15), Color.MAGENTA);
+        t.checkExpect(this.middle(m, 1, 1), Color.BLUE);
+        m.onKeyEvent("n");
+        t.checkExpect(m.canvas, null);
+        t.checkExpect(m.trailCells.cardinality(), 0);
+        m.makeScene();
+        t.checkExpect(this.middle(m, 0, 0), Color.BLUE);
+    }
+
+    void testSharedScene(Tester t) {
+        Maze m = new Maze(4, 5, 2);
+        Palette palette = m.palette;
+        WorldScene scene = m.makeScene();
+        t.checkExpect(m.makeScene() == scene, true);
+        t.checkExpect(m.cellX, new int[] {0, 10, 20, 30, 40});
+        t.checkExpect(m.cellY, new int[] {0, 10, 20, 30});
+        m.onKeyEvent("k");
+        m.onTick();
+        t.checkExpect(m.makeScene() == scene, true);
+        // a new maze gets a new canvas, and so a new scene, but the same palette
+        m.onKeyEvent("2");
+        WorldScene next = m.makeScene();
+        t.checkExpect(next == scene, false);
+        t.checkExpect(m.palette == palette, true);
+        m.playerx = 4;
+        m.playery = 3;
+        WorldScene won = m.makeScene();
+        t.checkExpect(m.makeScene() == won, true);
+        t.checkExpect(won == next, false);
+        t.checkExpect(m.oneWinsScene == won, true);
+        m.playerx = 0;
+        m.player2x = 0;
+        m.player2y = 3;
+        t.checkExpect(m.makeScene() == m.twoWinsScene, true);
+        m.mazeGen(4, 5, true);
+        t.checkExpect(m.oneWinsScene, null);
+        t.checkExpect(m.dirty.size(), 0);
+    }
+
+    void testStatusLine(Tester t) {
+        Maze m = new Maze(4, 5, 2);
+        WorldScene scene = m.makeScene();
+        t.checkExpect(m.status(), "");
+        t.checkExpect(scene.placed, 1);
+        m.onKeyEvent("l");
+        while (m.searches.size() > 0 && !m.searches.get(0).finished) {
+            m.onTick();
+        }
+        SearchStats stats = m.stats.get("a*");
+        t.checkExpect(m.status(), "a*: " + stats.report());
+        // the scene is built again once, to carry the status line
+        WorldScene solved = m.makeScene();
+        t.checkExpect(solved == scene, false);
+        t.checkExpect(solved.placed, 3);
+        t.checkExpect(m.makeScene() == solved, true);
+        // a solution already found shows the stats of its own search
+        m.onKeyEvent("k");
+        while (!m.searches.get(1).finished) {
+            m.onTick();
+        }
+        t.checkExpect(m.status(), "breadth first: " + m.stats.get("breadth first").report());
+        m.onKeyEvent("l");
+        t.checkExpect(m.status(), "a*: " + stats.report());
+        m.mazeGen(4, 5, false);
+        t.checkExpect(m.status(), "");
+        t.checkExpect(m.makeScene().placed, 1);
+    }
+
+    void testAim(Tester t) {
+        Maze m = new Maze(1, 1, "test");
+        // a view of 20 keeps 5 cells clear at either edge
+        t.checkExpect(m.aim(0, 20, 100, 3, 3), 0);
+        t.checkExpect(m.aim(0, 20, 100, 14, 14), 0);
+        t.checkExpect(m.aim(0, 20, 100, 15, 15), 5);
+        t.checkExpect(m.aim(30, 20, 100, 34, 34), 24);
+        t.checkExpect(m.aim(30, 20, 100, 35, 40), 30);
+        t.checkExpect(m.aim(80, 20, 100, 99, 99), 80);
+        t.checkExpect(m.aim(50, 20, 100, 2, 2), 0);
+        t.checkExpect(m.fits(20, 3, 12), true);
+        t.checkExpect(m.fits(20, 13, 3), false);
+        // a view bigger than the maze never moves
+        t.checkExpect(m.aim(0, 20, 20, 19, 19), 0);
+    }
+
+    void testViewport(Tester t) {
+        Maze m = new Maze(300, 400, 9);
+        m.makeScene();
+        t.checkExpect(m.viewWidth, 100);
+        t.checkExpect(m.viewLength, 70);
+        t.checkExpect(m.windowWidth(), 1000);
+        t.checkExpect(m.windowLength(), 700);
+        t.checkExpect(m.canvas.getPixel(999, 699), m.colorOf(m.grid.index(99, 69)));
+        t.checkExpect(m.inView(m.grid.index(99, 69)), true);
+        t.checkExpect(m.inView(m.grid.index(100, 5)), false);
+        // the camera catches up once player 1 nears the edge
+        m.playerx = 90;
+        m.playery = 10;
+        m.makeScene();
+        t.checkExpect(m.cameraX, 40);
+        t.checkExpect(m.cameraY, 0);
+        t.checkExpect(this.middle(m, 50, 10), Color.BLUE);
+        // cells out of view are left alone, cells in view are painted
+        m.markDirty(m.grid.index(5, 5));
+        m.playerx = 70;
+        m.markDirty(m.grid.index(70, 10));
+        m.markDirty(m.grid.index(90, 10));
+        m.makeScene();
+        t.checkExpect(m.cameraX, 40);
+        t.checkExpect(this.middle(m, 30, 10), Color.BLUE);
+        t.checkExpect(this.middle(m, 50, 10), Color.WHITE);
+        // the far corner
+        m.playerx = 399;
+        m.playery = 299;
+        m.makeScene();
+        t.checkExpect(m.cameraX, 300);
+        t.checkExpect(m.cameraY, 230);
+        t.checkExpect(this.middle(m, 99, 69), Color.MAGENTA);
+        // two players are framed together while they fit
+        m.mazeGen(300, 400, true);
+        t.checkExpect(m.cameraX, 0);
+        m.playerx = 150;
+        m.player2x = 170;
+        m.playery = 30;
+        m.player2y = 34;
+        m.makeScene();
+        t.checkExpect(m.cameraX, 110);
+        t.checkExpect(m.cameraY, 0);
+        // and player 1 is followed alone once they are too far apart
+        m.player2x = 399;
+        m.makeScene();
+        t.checkExpect(m.cameraX, 110);
+        m.playerx = 200;
+        m.makeScene();
+        t.checkExpect(m.cameraX, 150);
+        // a maze that fits never scrolls
+        Maze small = new Maze(20, 30, 1);
+        small.playerx = 29;
+        small.playery = 19;
+        small.makeScene();
+        t.checkExpect(small.cameraX, 0);
+        t.checkExpect(small.viewWidth, 30);
+    }
+
+    void testZoom(Tester t) {
+        Maze m = new Maze(300, 400, 9);
+        m.makeScene();
+        m.onKeyEvent("=");
+        t.checkExpect(m.cellSize, 20);
+        t.checkExpect(m.canvas, null);
+        m.makeScene();
+        t.checkExpect(m.viewWidth, 50);
+        t.checkExpect(m.viewLength, 35);
+        m.onKeyEvent("+");
+        m.onKeyEvent("+");
+        t.checkExpect(m.cellSize, 40);
+        for (int i = 0; i < 8; i += 1) {
+            m.onKeyEvent("-");
+        }
+        t.checkExpect(m.cellSize, 1);
+        m.makeScene();
+        t.checkExpect(m.viewWidth, 400);
+        t.checkExpect(m.viewLength, 300);
+        t.checkExpect(m.cameraX, 0);
+        // the whole maze as one bitmap, a pixel a cell
+        t.checkExpect(m.canvas.getPixel(0, 0), Color.BLUE);
+        t.checkExpect(m.canvas.getPixel(399, 299), Color.MAGENTA);
+        int walled = 0;
+        int wrong = 0;
+        for (int cell = 1; cell < m.grid.size() - 1; cell += 1) {
+            boolean closed = !m.grid.isOpen(cell, MazeGrid.NORTH) 
+                    && !m.grid.isOpen(cell, MazeGrid.WEST);
+            Color pixel = m.canvas.getPixel(cell % 400, cell / 400);
+            if (closed) {
+                walled += 1;
+            }
+
+            if (!pixel.equals(closed ? Color.BLACK : Color.WHITE)) {
+                wrong += 1;
+            }
+        }
+        t.checkExpect(wrong, 0);
+        t.checkNumRange(walled, 1, m.grid.size());
+        // a sub-pixel zoom cannot go further
+        m.zoom(-1);
+        t.checkExpect(m.cellSize, 1);
+        // off-sizes zoom from the next level up
+        m.cellSize = 4;
+        m.zoom(1);
+        t.checkExpect(m.cellSize, 10);
     }
 
-    void testNoRightWall(Tester t) {
-        t.checkExpect(v1.noRightWall(1, 1, 10, this.v2), false);
-        t.checkExpect(v2.noRightWall(2, 2, 10, this.v1), true);
-        t.checkExpect(v1.noRightWall(2, 2, 10, this.v2), true);
-        t.checkExpect(v2.noRightWall(3, 3, 10, this.v1), false);
+    void testPaintBlock(Tester t) {
+        Maze m = new Maze(2, 3, "test");
+        MazeGrid grid = new MazeGrid(2, 3);
+        m.grid = grid;
+        grid.carve(0, 1);
+        grid.carve(1, 4);
+        grid.carve(3, 4);
+        grid.carve(4, 5);
+        grid.carve(2, 5);
+        m.zoom(-2);
+        t.checkExpect(m.cellSize, 3);
+        m.zoom(-1);
+        t.checkExpect(m.cellSize, 2);
+        m.makeScene();
+        t.checkExpect(m.canvas.getPixel(2, 0), Color.BLACK);
+        t.checkExpect(m.canvas.getPixel(3, 0), Color.BLACK);
+        t.checkExpect(m.canvas.getPixel(2, 1), Color.WHITE);
+        t.checkExpect(m.canvas.getPixel(3, 1), Color.WHITE);
+        // 1 and 4 are joined, 3 and 4 are joined, 0 and 3 are not
+        t.checkExpect(m.canvas.getPixel(3, 2), Color.WHITE);
+        t.checkExpect(m.canvas.getPixel(2, 3), Color.WHITE);
+        t.checkExpect(m.canvas.getPixel(0, 3), Color.BLACK);
+        t.checkExpect(m.canvas.getPixel(1, 2), Color.BLACK);
+        t.checkExpect(m.canvas.getPixel(1, 3), Color.WHITE);
+        t.checkExpect(m.canvas.getPixel(5, 3), Color.MAGENTA);
+        t.checkExpect(m.canvas.getPixel(1, 1), Color.BLUE);
     }
 
-    void testNoDownWall(Tester t) {
-        t.checkExpect(v1.noDownWall(2, 2, this.v3), true);
-        t.checkExpect(v1.noDownWall(2, 2, this.v2), false);
-        t.checkExpect(v1.noDownWall(1, 1, this.v2), false);
-        t.checkExpect(v3.noDownWall(1, 1, this.v2), false);
+    void testEngines(Tester t) {
+        Engines engines = new Engines();
+        t.checkExpect(engines.generators().length, 7);
+        t.checkExpect(engines.generator("binary-tree").name(), "binary tree");
+        t.checkExpect(engines.generator("parallel kruskal").name(), "parallel kruskal");
+        t.checkException(new IllegalArgumentException("Unknown generator: prim"), 
+                engines, "generator", "prim");
+        MazeGrid grid = new MazeGrid(1, 1);
+        for (String name : engines.solvers()) {
+            t.checkExpect(engines.solver(name, grid, 0, 0).name(), name);
+        }
+        t.checkExpect(engines.solver("depth-first", grid, 0, 0).name(), "depth first");
+        t.checkExpect(engines.solver("astar", grid, 0, 0).name(), "a*");
+        t.checkException(new IllegalArgumentException("Unknown solver: dijkstra"), 
+                engines, "solver", "dijkstra", grid, 0, 0);
     }
 
-    void testGetWeight(Tester t) {
-        t.checkNumRange(e1.getWeight(), 0, 1);
-        t.checkNumRange(e2.getWeight(), 0, 1);
+    void testMazeCli(Tester t) {
+        MazeCli cli = new MazeCli().parse(new String[] {"--size", "20x30", "--count", "3", 
+            "--generator", "wilson", "--solver", "a*", "--seed", "5"});
+        t.checkExpect(cli.length, 20);
+        t.checkExpect(cli.width, 30);
+        t.checkExpect(cli.count, 3);
+        t.checkExpect(cli.seed, 5L);
+        t.checkExpect(cli.out, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            cli.run(new PrintStream(bytes, true));
+        }
+
+        catch (IOException e) {
+            t.checkExpect(e, null);
+        }
+        String[] lines = bytes.toString().split("\n");
+        t.checkExpect(lines.length, 4);
+        long first = new SplittableRandom(5).nextLong();
+        int steps = new Maze(20, 30, first, new WilsonGenerator()).aStar().length;
+        t.checkExpect(lines[0].startsWith("0 seed " + first + " wilson 20x30 generated in "), 
+                true);
+        t.checkExpect(lines[0].contains(" a* path " + steps + " steps, "), true);
+        t.checkExpect(lines[3].startsWith("3 mazes of 600 cells: wilson "), true);
+        // quiet leaves only the summary
+        bytes.reset();
+        try {
+            new MazeCli().parse(new String[] {"--quiet", "--count", "2"})
+                .run(new PrintStream(bytes, true));
+        }
+
+        catch (IOException e) {
+            t.checkExpect(e, null);
+        }
+        t.checkExpect(bytes.toString().split("\n").length, 1);
+        t.checkException(new IllegalArgumentException("Unknown option: --colour"), 
+                new MazeCli(), "parse", (Object) new String[] {"--colour", "red"});
+        t.checkException(new IllegalArgumentException("Missing value for --count"), 
+                new MazeCli(), "parse", (Object) new String[] {"--count"});
+        t.checkException(new IllegalArgumentException("Not a number for --count: many"), 
+                new MazeCli(), "parse", (Object) new String[] {"--count", "many"});
+        t.checkException(new IllegalArgumentException("Size must be LENGTHxWIDTH: 40"), 
+                new MazeCli(), "parse", (Object) new String[] {"--size", "40"});
+        t.checkException(new IllegalArgumentException("Unknown solver: dfs"), 
+                new MazeCli(), "parse", (Object) new String[] {"--solver", "dfs"});
+        t.checkException(new IllegalArgumentException("Count must be at least 1: -3"), 
+                new MazeCli(), "parse", (Object) new String[] {"--count", "-3"});
+        t.checkException(new IllegalArgumentException("Count must be at least 1: 0"), 
+                new MazeCli(), "parse", (Object) new String[] {"--count", "0"});
+        t.checkExpect(new Engines().solverName("breadth-first"), "breadth first");
+        t.checkExpect(new Engines().solverName("astar"), "a*");
+        t.checkExpect(new Engines().solverName("a*"), "a*");
+        t.checkExpect(new MazeCli().parse(new String[] {"--solver", "astar"}).solver, "a*");
+        t.checkExpect(new MazeCli().parse(new String[] {"--solver", "a*"}).solver, "a*");
     }
 
-    void testNoRightWallEdge(Tester t) {
-        t.checkExpect(e1.noRightWall(2, 2, 10), true);
-        t.checkExpect(e1.noRightWall(1, 1, 10), false);
-        t.checkExpect(e1.noRightWall(2, 3, 10), false);
-        t.checkExpect(e2.noRightWall(2, 2, 1), true);
-        t.checkExpect(e2.noRightWall(2, 2, 10), false);
-        t.checkExpect(e2.noRightWall(3, 2, 10), false);
+    void testMazeCliFiles(Tester t) {
+        try {
+            Path dir = Files.createTempDirectory("mazes");
+            new MazeCli().parse(new String[] {"--quiet", "--count", "2", "--size", "8x9", 
+                "--generator", "eller", "--out", dir.toString()})
+                .run(new PrintStream(new ByteArrayOutputStream(), true));
+            MappedGrid mapped = new MazeFile().map(dir.resolve("maze-1.maze"));
+            t.checkExpect(mapped.generator, "eller");
+            SplittableRandom seeds = new SplittableRandom(0);
+            seeds.nextLong();
+            t.checkExpect(mapped.seed, seeds.nextLong());
+            t.checkExpect(this.sameWalls(mapped, 
+                    new EllerGenerator().generate(8, 9, mapped.seed)), true);
+            Files.delete(dir.resolve("maze-0.maze"));
+            Files.delete(dir.resolve("maze-1.maze"));
+            Files.delete(dir);
+        }
+
+        catch (IOException e) {
+            t.checkExpect(e, null);
+        }
     }
 
-    void testNoDownWallEdge(Tester t) {
-        t.checkExpect(e1.noDownWall(1, 1), false);
-        t.checkExpect(e1.noDownWall(2, 2), false);
-        t.checkExpect(e2.noDownWall(1, 1), false);
-        t.checkExpect(e2.noDownWall(2, 2), true);
-        t.checkExpect(e2.noDownWall(3, 3), false);
+    void testJoin(Tester t) {
+        BidirectionalSearch m = new BidirectionalSearch(new MazeGrid(1, 5), 0, 4);
+        // 0 <- 1 <- 2 from the start, 2 -> 3 -> 4 from the end
+        int[] fromStart = {-1, 0, 1, -1, -1};
+        int[] fromEnd = {-1, -1, 3, 4, -1};
+        t.checkExpect(m.join(fromStart, fromEnd, 2), new int[] {4, 3, 2, 1});
+        t.checkExpect(m.join(fromStart, fromEnd, -1), new int[0]);
+        t.checkExpect(m.join(new int[] {-1, -1}, new int[] {1, -1}, 0), new int[] {1});
     }
 
-    void testCompareTo(Tester t) {
-        t.checkNumRange(e1.compareTo(e2), -1, 2);
-        t.checkNumRange(e2.compareTo(e1), -1, 2);
-        t.checkNumRange(e1.compareTo(e1), -1, 2);
+    void testSizeCounter(Tester t) {
+        init();
+        deque2.removeNode(n22);
+        t.checkExpect(deque2.size(), 3);
+        deque2.removeNode(n22);
+        t.checkExpect(deque2.size(), 3);
+        deque1.addAtHead("a");
+        deque1.addAtTail("b");
+        t.checkExpect(deque1.size(), 2);
+        deque1.removeFromTail();
+        deque1.removeFromHead();
+        t.checkExpect(deque1.size(), 0);
+        t.checkException(new RuntimeException("Can't remove head of empty list"), 
+                deque1, "removeFromHead");
+        t.checkExpect(deque1.size(), 0);
     }
 
-    /*
-     * void testTree(Tester t) { this.init();
-     * t.checkExpect(m.edgesInTree.size(), 0); t.checkExpect(m.workList.size(),
-     * 0); t.checkExpect(m.workList.size(), 8);
-     * t.checkExpect(m.edgesInTree.size(), 0); m.makeTree();
-     * t.checkExpect(m.workList.size(), 0);
-     * //t.checkExpect(m.edgesInTree.size(), 3); }
-     */
+    void testIntDeque(Tester t) {
+        IntDeque ints = new IntDeque(2);
+        t.checkExpect(ints.size(), 0);
+        ints.addAtTail(2);
+        ints.addAtHead(1);
+        ints.addAtTail(3);
+        ints.addAtHead(0);
+        ints.addAtTail(4);
+        t.checkExpect(ints.size(), 5);
+        t.checkExpect(ints.items.length, 8);
+        t.checkExpect(ints.removeFromHead(), 0);
+        t.checkExpect(ints.removeFromTail(), 4);
+        t.checkExpect(ints.removeFromHead(), 1);
+        t.checkExpect(ints.removeFromHead(), 2);
+        t.checkExpect(ints.removeFromTail(), 3);
+        t.checkExpect(ints.size(), 0);
+        t.checkException(new RuntimeException("Can't remove head of empty list"), 
+                ints, "removeFromHead");
+        t.checkException(new RuntimeException("Can't remove tail of empty list"), 
+                ints, "removeFromTail");
+    }
 
     void testUnionFind(Tester t) {
-        this.init();
-        m.representatives.put(10, 10);
-        m.representatives.put(20, 20);
-        m.representatives.put(11, 11);
-        t.checkExpect(m.find(v1), 10);
-        t.checkExpect(m.find(v2), 20);
-        t.checkExpect(m.find(v3), 11);
-        m.union(v1, v2);
-        t.checkExpect(m.find(v1), 20);
-        t.checkExpect(m.find(v2), 20);
-        t.checkExpect(m.find(v3), 11);
-        m.union(v2, v3);
-        t.checkExpect(m.find(v1), 11);
-        t.checkExpect(m.find(v2), 11);
-        t.checkExpect(m.find(v3), 11);
+        UnionFind sets = new UnionFind(21);
+        t.checkExpect(sets.find(10), 10);
+        t.checkExpect(sets.find(20), 20);
+        t.checkExpect(sets.find(11), 11);
+        sets.union(10, 20);
+        t.checkExpect(sets.find(10), 20);
+        t.checkExpect(sets.find(20), 20);
+        t.checkExpect(sets.find(11), 11);
+        t.checkExpect(sets.parent[10], 20);
+        sets.union(20, 11);
+        t.checkExpect(sets.find(10), 20);
+        t.checkExpect(sets.find(20), 20);
+        t.checkExpect(sets.find(11), 20);
+    }
+
+    void testUnionFindRank(Tester t) {
+        UnionFind sets = new UnionFind(6);
+        t.checkExpect(sets.union(0, 1), true);
+        t.checkExpect(sets.union(1, 0), false);
+        t.checkExpect(sets.rank[1], (byte) 1);
+        t.checkExpect(sets.union(2, 1), true);
+        t.checkExpect(sets.find(2), 1);
+        t.checkExpect(sets.rank[1], (byte) 1);
+        sets.union(3, 4);
+        sets.union(4, 5);
+        sets.union(0, 5);
+        t.checkExpect(sets.rank[4], (byte) 2);
+        t.checkExpect(sets.find(2), 4);
+        // a path of length two gets halved by find
+        t.checkExpect(sets.parent[0], 1);
+        sets.find(0);
+        t.checkExpect(sets.parent[0], 4);
+    }
+
+    // returns the number of open walls in the grid
+    int passages(AGrid grid) {
+        int open = 0;
+        for (int cell = 0; cell < grid.size(); cell += 1) {
+            if (grid.isOpen(cell, MazeGrid.EAST)) {
+                open += 1;
+            }
+            if (grid.isOpen(cell, MazeGrid.SOUTH)) {
+                open += 1;
+            }
+        }
+        return open;
+    }
+
+    // returns the number of cells that can be reached from the first one
+    int reachable(AGrid grid) {
+        BitSet seen = new BitSet(grid.size());
+        IntDeque worklist = new IntDeque();
+        worklist.addAtTail(0);
+        seen.set(0);
+        while (worklist.size() > 0) {
+            int cell = worklist.removeFromHead();
+            for (byte dir : MazeGrid.DIRECTIONS) {
+                if (grid.isOpen(cell, dir) && !seen.get(grid.neighbour(cell, dir))) {
+                    seen.set(grid.neighbour(cell, dir));
+                    worklist.addAtTail(grid.neighbour(cell, dir));
+                }
+            }
+        }
+        return seen.cardinality();
+    }
+
+    void testKruskal(Tester t) {
+        MazeGrid grid = new KruskalGenerator().generate(6, 7, 5);
+        // a spanning tree: one fewer passage than cells, and all connected
+        t.checkExpect(this.passages(grid), 41);
+        t.checkExpect(this.reachable(grid), 42);
+        grid = new KruskalGenerator().generate(1, 9, 5);
+        t.checkExpect(this.passages(grid), 8);
+        grid = new KruskalGenerator().generate(30, 1, 5);
+        t.checkExpect(this.reachable(grid), 30);
+        t.checkExpect(new KruskalGenerator().generate(1, 1, 5).size(), 1);
+    }
+
+    void testGenerators(Tester t) {
+        for (IMazeGenerator generator : new Maze(1, 1, 0).generators) {
+            MazeGrid grid = generator.generate(23, 17, 7);
+            t.checkExpect(this.passages(grid), 23 * 17 - 1, generator.name());
+            t.checkExpect(this.reachable(grid), 23 * 17, generator.name());
+            t.checkExpect(grid.bits, generator.generate(23, 17, 7).bits, generator.name());
+            t.checkExpect(this.reachable(generator.generate(1, 9, 7)), 9, generator.name());
+            t.checkExpect(this.reachable(generator.generate(9, 1, 7)), 9, generator.name());
+            t.checkExpect(this.passages(generator.generate(1, 1, 7)), 0, generator.name());
+        }
+    }
+
+    void testEllerRows(Tester t) {
+        MazeGrid grid = new MazeGrid(7, 10);
+        new EllerRows().stream(7, 10, 3, new GridRowSink(grid));
+        t.checkExpect(this.passages(grid), 69);
+        t.checkExpect(this.reachable(grid), 70);
+        t.checkExpect(grid.bits, new EllerGenerator().generate(7, 10, 3).bits);
+        // the same rows, packed straight into a stream
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new EllerRows().stream(7, 10, 3, new ChannelRowSink(Channels.newChannel(out), 10));
+        t.checkExpect(out.toByteArray(), grid.bits);
+    }
+
+    void testEllerToFile(Tester t) {
+        try {
+            Path file = Files.createTempFile("eller", ".maze");
+            new EllerRows().streamToFile(40, 33, 8, file);
+            t.checkExpect(Files.size(file), 56L + (40 * 33 + 3) / 4);
+            MappedGrid mapped = new MazeFile().map(file);
+            t.checkExpect(mapped.generator, "eller");
+            t.checkExpect(mapped.seed, 8L);
+            t.checkExpect(this.sameWalls(mapped, new EllerGenerator().generate(40, 33, 8)), true);
+            Files.delete(file);
+        }
+
+        catch (IOException e) {
+            t.checkExpect(e, null);
+        }
+    }
+
+    // checks if the two grids have the same size and open walls
+    boolean sameWalls(AGrid grid1, AGrid grid2) {
+        boolean same = grid1.length == grid2.length && grid1.width == grid2.width;
+        for (int cell = 0; same && cell < grid1.size(); cell += 1) {
+            for (byte dir : MazeGrid.DIRECTIONS) {
+                same = same && grid1.isOpen(cell, dir) == grid2.isOpen(cell, dir);
+            }
+        }
+        return same;
+    }
+
+    void testMazeFile(Tester t) {
+        try {
+            Path file = Files.createTempFile("maze", ".maze");
+            MazeGrid grid = new WilsonGenerator().generate(21, 13, 4);
+            new MazeFile().write(grid, 4, "wilson", file);
+            t.checkExpect(Files.size(file), 56L + 69);
+            MappedGrid mapped = new MazeFile().map(file);
+            t.checkExpect(mapped.length, 21);
+            t.checkExpect(mapped.width, 13);
+            t.checkExpect(mapped.packedBits().remaining(), 69);
+            t.checkExpect(this.sameWalls(mapped, grid), true);
+            // a mapped maze writes back out byte for byte
+            Path copy = Files.createTempFile("copy", ".maze");
+            new MazeFile().write(mapped, mapped.seed, mapped.generator, copy);
+            t.checkExpect(Files.readAllBytes(copy), Files.readAllBytes(file));
+            t.checkExpect(this.sameWalls(new MazeFile().map(copy), grid), true);
+            Files.delete(copy);
+            // playing and solving work on the mapping
+            Maze played = new Maze(mapped, mapped.seed);
+            t.checkExpect(played.depthFirst(), new Maze(grid, 4).depthFirst());
+            t.checkExpect(played.breadthFirst(), played.depthFirst());
+            t.checkExpect(played.canWalk(0, 0, 1, 0), grid.isOpen(0, MazeGrid.EAST));
+            Files.write(file, new byte[60]);
+            t.checkException(new IOException("Not a maze file: " + file), 
+                    new MazeFile(), "map", file);
+            // a header written by hand, with sides no maze can have
+            ByteBuffer header = new MazeFile().header(0, 13, 4, "wilson");
+            Files.write(file, Arrays.copyOf(header.array(), 60));
+            t.checkException(new IOException("Maze file has no cells: " + file), 
+                    new MazeFile(), "map", file);
+            header = new MazeFile().header(-3, -5, 4, "wilson");
+            Files.write(file, Arrays.copyOf(header.array(), 60));
+            t.checkException(new IOException("Maze file has no cells: " + file), 
+                    new MazeFile(), "map", file);
+            Files.delete(file);
+        }
+
+        catch (IOException e) {
+            t.checkExpect(e, null);
+        }
+    }
+
+    void testHasNeighbour(Tester t) {
+        MazeGrid grid = new MazeGrid(2, 3);
+        t.checkExpect(grid.hasNeighbour(0, MazeGrid.NORTH), false);
+        t.checkExpect(grid.hasNeighbour(0, MazeGrid.WEST), false);
+        t.checkExpect(grid.hasNeighbour(0, MazeGrid.SOUTH), true);
+        t.checkExpect(grid.hasNeighbour(2, MazeGrid.EAST), false);
+        t.checkExpect(grid.hasNeighbour(4, MazeGrid.SOUTH), false);
+        t.checkExpect(grid.hasNeighbour(4, MazeGrid.NORTH), true);
+        t.checkExpect(grid.hasNeighbour(3, MazeGrid.EAST), true);
+    }
+
+    void testPickGenerator(Tester t) {
+        m = new Maze(6, 8, 1);
+        t.checkExpect(m.generator.name(), "kruskal");
+        m.onKeyEvent("2");
+        m.onKeyEvent("g");
+        t.checkExpect(m.generator.name(), "parallel kruskal");
+        t.checkExpect(m.player2, true);
+        t.checkExpect(this.reachable(m.grid), 48);
+        m.mazeGen(6, 8, false, new SidewinderGenerator());
+        t.checkExpect(m.generator.name(), "sidewinder");
+        m.onKeyEvent("n");
+        t.checkExpect(m.generator.name(), "sidewinder");
+        m.onKeyEvent("g");
+        t.checkExpect(m.generator.name(), "binary tree");
+        m.onKeyEvent("g");
+        t.checkExpect(m.generator.name(), "kruskal");
+        Maze eller = new Maze(6, 8, 1, new EllerGenerator());
+        t.checkExpect(this.sameWalls(eller.grid, new EllerGenerator().generate(6, 8, 1)), true);
+    }
+
+    void testShuffle(Tester t) {
+        int[] edges = {0, 1, 2, 3, 4, 5, 6, 7};
+        new KruskalGenerator().shuffle(edges, new SplittableRandom(3));
+        int[] sorted = Arrays.copyOf(edges, edges.length);
+        Arrays.sort(sorted);
+        t.checkExpect(sorted, new int[] {0, 1, 2, 3, 4, 5, 6, 7});
+        t.checkExpect(Arrays.equals(edges, sorted), false);
+        // every edge lands first about equally often
+        int[] firsts = new int[4];
+        SplittableRandom rand = new SplittableRandom(4);
+        for (int i = 0; i < 4000; i += 1) {
+            int[] four = {0, 1, 2, 3};
+            new KruskalGenerator().shuffle(four, rand);
+            firsts[four[0]] += 1;
+        }
+        for (int count : firsts) {
+            t.checkNumRange(count, 900, 1100);
+        }
+    }
+
+    void testParallelKruskal(Tester t) {
+        MazeGrid one = new ParallelKruskalGenerator(new ForkJoinPool(1)).generate(300, 37, 9);
+        MazeGrid four = new ParallelKruskalGenerator(new ForkJoinPool(4)).generate(300, 37, 9);
+        t.checkExpect(this.passages(one), 300 * 37 - 1);
+        t.checkExpect(this.reachable(one), 300 * 37);
+        t.checkExpect(one.bits, four.bits);
+        MazeGrid small = new ParallelKruskalGenerator().generate(5, 6, 9);
+        t.checkExpect(this.passages(small), 29);
+        t.checkExpect(this.reachable(small), 30);
+        t.checkExpect(small.bits, new ParallelKruskalGenerator().generate(5, 6, 9).bits);
+        t.checkExpect(Arrays.equals(small.bits, 
+                new ParallelKruskalGenerator().generate(5, 6, 10).bits), false);
+        ParallelKruskalGenerator gen = new ParallelKruskalGenerator();
+        t.checkExpect(gen.edgeOf(gen.weigh(9, 2 * 1000 + 1)), 2001);
+        // exactly the maze one Kruskal pass over every edge by weight gives,
+        // across several levels of merges and a short last strip
+        t.checkExpect(gen.generate(700, 23, 5).bits, this.kruskalByWeight(700, 23, 5));
+        t.checkExpect(gen.generate(300, 1, 5).bits, this.kruskalByWeight(300, 1, 5));
+        t.checkExpect(gen.generate(257, 64, 6).bits, this.kruskalByWeight(257, 64, 6));
+        long[] keys = {gen.weigh(1, 4), gen.weigh(1, 5), gen.weigh(1, 9), gen.weigh(1, 12)};
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        gen.bucketSort(keys);
+        t.checkExpect(keys, sorted);
+    }
+
+    // returns the passage bits of a serial Kruskal maze over the parallel
+    // generator's edge weights
+    byte[] kruskalByWeight(int length, int width, long seed) {
+        ParallelKruskalGenerator gen = new ParallelKruskalGenerator();
+        MazeGrid grid = new MazeGrid(length, width);
+        long[] keys = new long[grid.edgeCount()];
+        int count = 0;
+        for (int cell = 0; cell < grid.size(); cell += 1) {
+            if (grid.hasNeighbour(cell, MazeGrid.EAST)) {
+                keys[count] = gen.weigh(seed, 2 * cell);
+                count += 1;
+            }
+
+            if (grid.hasNeighbour(cell, MazeGrid.SOUTH)) {
+                keys[count] = gen.weigh(seed, 2 * cell + 1);
+                count += 1;
+            }
+        }
+        Arrays.sort(keys);
+        UnionFind sets = new UnionFind(grid.size());
+        for (long key : keys) {
+            int edge = gen.edgeOf(key);
+            if (sets.union(edge >> 1, grid.across(edge))) {
+                gen.carve(grid, key);
+            }
+        }
+        return grid.bits;
+    }
+
+    // returns the number of south passages out of row y
+    int southPassages(AGrid grid, int y) {
+        int count = 0;
+        for (int x = 0; x < grid.width; x += 1) {
+            if (grid.isOpen(grid.index(x, y), MazeGrid.SOUTH)) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    void testParallelKruskalStripBoundary(Tester t) {
+        // the walls between strips open as often as anywhere else, and as
+        // often as in a serial Kruskal maze
+        int serial = 0;
+        int parallel = 0;
+        int inside = 0;
+        for (long seed = 0; seed < 4; seed += 1) {
+            MazeGrid one = new KruskalGenerator().generate(512, 200, seed);
+            MazeGrid many = new ParallelKruskalGenerator().generate(512, 200, seed);
+            serial += this.southPassages(one, 127) + this.southPassages(one, 255);
+            parallel += this.southPassages(many, 127) + this.southPassages(many, 255);
+            inside += this.southPassages(many, 100) + this.southPassages(many, 200);
+        }
+        t.checkNumRange(parallel, serial * 0.9, serial * 1.1);
+        t.checkNumRange(parallel, inside * 0.9, inside * 1.1);
     }
 
     void testAddRightWall(Tester t) {
         this.init();
+        t.checkExpect(m.addRightWall(0, 1), true);
         t.checkExpect(m.addRightWall(1, 1), true);
-        t.checkExpect(m.addRightWall(2, 2), true);
-        m.edgesInTree.add(e3);
-        t.checkExpect(m.addRightWall(1, 1), true);
-        t.checkExpect(m.addRightWall(2, 2), false);
+        MazeGrid grid = new MazeGrid(2, 2);
+        m.grid = grid;
+        grid.carve(3, 1);
+        t.checkExpect(m.addRightWall(0, 1), true);
+        t.checkExpect(m.addRightWall(1, 1), false);
+        t.checkExpect(m.addRightWall(1, 0), true);
     }
 
     void testAddDownWall(Tester t) {
         this.init();
         t.checkExpect(m.addDownWall(1, 1), true);
-        t.checkExpect(m.addDownWall(2, 2), true);
-        m.edgesInTree.add(e2);
+        t.checkExpect(m.addDownWall(1, 0), true);
+        MazeGrid grid = new MazeGrid(2, 2);
+        m.grid = grid;
+        grid.carve(0, 1);
         t.checkExpect(m.addDownWall(1, 1), true);
-        t.checkExpect(m.addDownWall(2, 2), false);
+        t.checkExpect(m.addDownWall(1, 0), false);
+        t.checkExpect(m.addDownWall(0, 0), true);
+    }
+
+    void testMazeGrid(Tester t) {
+        MazeGrid grid = new MazeGrid(2, 3);
+        t.checkExpect(grid.index(2, 1), 5);
+        grid.carve(4, 1);
+        grid.carve(4, 5);
+        t.checkExpect(grid.isOpen(4, MazeGrid.NORTH), true);
+        t.checkExpect(grid.isOpen(1, MazeGrid.SOUTH), true);
+        t.checkExpect(grid.isOpen(4, MazeGrid.WEST), false);
+        t.checkExpect(grid.isOpen(4, MazeGrid.EAST), true);
+        t.checkExpect(grid.isOpen(5, MazeGrid.WEST), true);
+        t.checkExpect(grid.isOpen(1, MazeGrid.NORTH), false);
+        t.checkExpect(grid.canWalk(1, 4), true);
+        t.checkExpect(grid.canWalk(5, 4), true);
+        t.checkExpect(grid.canWalk(4, 3), false);
+        t.checkExpect(grid.canWalk(1, 5), false);
+        t.checkExpect(grid.canWalk(3, 2), false);
+        // two bits per cell, four cells to a byte
+        t.checkExpect(grid.bits, new byte[] {(byte) 0x08, (byte) 0x01});
+        t.checkExpect(grid.edgeCount(), 7);
+        t.checkExpect(grid.across(2), 2);
+        t.checkExpect(grid.across(3), 4);
+        t.checkExpect(new MazeGrid(100, 100).bits.length, 2500);
     }
 
     // beginning of new tests
-    void testSameVerticies(Tester t) {
-        init();
-        Edge tempEdge1 = new Edge(v1, v2);
-        Edge tempEdge12 = new Edge(v1, v2);
-        Edge tempEdge2 = new Edge(v2, v1);
-        t.checkExpect(tempEdge1.sameVerticies(v1, v2), true);
-        t.checkExpect(tempEdge12.sameVerticies(v1, v2), true);
-        t.checkExpect(tempEdge2.sameVerticies(v1, v2), false);
+    void testNeighbour(Tester t) {
+        MazeGrid grid = new MazeGrid(3, 4);
+        t.checkExpect(grid.neighbour(5, MazeGrid.NORTH), 1);
+        t.checkExpect(grid.neighbour(5, MazeGrid.SOUTH), 9);
+        t.checkExpect(grid.neighbour(5, MazeGrid.EAST), 6);
+        t.checkExpect(grid.neighbour(5, MazeGrid.WEST), 4);
+    }
+
+    void testCanWalk(Tester t) {
+        this.init();
+        MazeGrid grid = new MazeGrid(2, 2);
+        m.grid = grid;
+        grid.carve(0, 1);
+        grid.carve(1, 3);
+        t.checkExpect(m.canWalk(0, 0, 1, 0), true);
+        t.checkExpect(m.canWalk(1, 0, 0, 0), true);
+        t.checkExpect(m.canWalk(1, 1, 1, 0), true);
+        t.checkExpect(m.canWalk(0, 0, 0, 1), false);
+        t.checkExpect(m.canWalk(0, 0, 1, 1), false);
+        t.checkExpect(m.canMove(0, 0, MazeGrid.EAST), true);
+        t.checkExpect(m.canMove(0, 0, MazeGrid.WEST), false);
+        t.checkExpect(m.canMove(1, 0, MazeGrid.SOUTH), true);
+        m.onKeyEvent("right");
+        m.onKeyEvent("down");
+        m.onKeyEvent("right");
+        t.checkExpect(m.playerx, 1);
+        t.checkExpect(m.playery, 1);
+    }
+
+    void testSeededMaze(Tester t) {
+        Maze m1 = new Maze(12, 15, 42);
+        Maze m2 = new Maze(12, 15, 42);
+        t.checkExpect(this.sameWalls(m1.grid, m2.grid), true);
+        t.checkExpect(this.sameWalls(m1.grid, new Maze(12, 15, 43).grid), false);
+        // regenerating draws the same sequence of seeds
+        m1.onKeyEvent("n");
+        m2.onKeyEvent("n");
+        t.checkExpect(m1.seed, m2.seed);
+        t.checkExpect(this.sameWalls(m1.grid, m2.grid), true);
+    }
 
+    void testReconstruct(Tester t) {
+        ASearch m = new BreadthFirstSearch(new MazeGrid(1, 4), 0, 3);
+        t.checkExpect(m.reconstruct(new int[] {-1, 0, 1, 1}, 3), new int[] {3, 1});
+        t.checkExpect(m.reconstruct(new int[] {-1, 0, 1, 1}, 0), new int[0]);
+        // a corridor long enough to have overflowed the recursive version
+        int[] corridor = new int[200000];
+        for (int i = 0; i < corridor.length; i += 1) {
+            corridor[i] = i - 1;
+        }
+        int[] path = m.reconstruct(corridor, corridor.length - 1);
+        t.checkExpect(path.length, corridor.length - 1);
+        t.checkExpect(path[0], corridor.length - 1);
+        t.checkExpect(path[path.length - 1], 1);
     }
 
     void testUncontrolledSearches(Tester t) {
@@ -1216,6 +4632,12 @@ class ExampleMaze {
         t.checkExpect(m.depthFirst(), m.breadthFirst());
         m = new Maze(20, 10);
         t.checkExpect(m.depthFirst(), m.breadthFirst());
+        m = new Maze(1, 12);
+        t.checkExpect(m.depthFirst().length, 11);
+        t.checkExpect(m.stats.get("depth first").expanded, 12);
+        t.checkExpect(m.stats.get("breadth first"), null);
+        t.checkExpect(m.breadthFirst().length, 11);
+        t.checkExpect(m.stats.get("breadth first").expanded, 12);
 
     }
 }
\ No newline at end of file
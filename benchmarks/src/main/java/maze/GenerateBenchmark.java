@@ -0,0 +1,46 @@
+package maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// carves a whole side x side maze with each generator
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class GenerateBenchmark {
+    @Param({"100", "1000"})
+    int side;
+
+    @Param({"kruskal", "parallel kruskal", "backtracker", "wilson", "eller", "sidewinder", 
+        "binary tree"})
+    String generator;
+
+    IMazeGenerator engine;
+    long seed;
+
+    @Setup
+    public void setUp() {
+        this.engine = new Engines().generator(this.generator);
+        this.seed = 0;
+    }
+
+    @Benchmark
+    public MazeGrid generate() {
+        this.seed += 1;
+        return this.engine.generate(this.side, this.side, this.seed);
+    }
+}
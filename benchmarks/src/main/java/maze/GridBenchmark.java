@@ -0,0 +1,97 @@
+package maze;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// the per-cell questions the game asks of a side x side maze: whether two
+// cells are joined, whether a cell has its north or west wall, and how far
+// apart two cells are, each reported per call
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class GridBenchmark {
+    static final int QUERIES = 1 << 12;
+
+    @Param({"100", "1000"})
+    int side;
+
+    Maze maze;
+    int[] xs;
+    int[] ys;
+    int[] from;
+    int[] to;
+
+    @Setup
+    public void setUp() {
+        this.maze = new Maze(this.side, this.side, 1);
+        this.maze.pathIndex();
+        SplittableRandom rand = new SplittableRandom(2);
+        this.xs = new int[QUERIES];
+        this.ys = new int[QUERIES];
+        this.from = new int[QUERIES];
+        this.to = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i += 1) {
+            this.xs[i] = rand.nextInt(this.side - 1);
+            this.ys[i] = rand.nextInt(this.side);
+            this.from[i] = rand.nextInt(this.side * this.side);
+            this.to[i] = rand.nextInt(this.side * this.side);
+        }
+    }
+
+    // asks whether random cells are joined to the cell east of them
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int canWalk() {
+        int open = 0;
+        for (int i = 0; i < QUERIES; i += 1) {
+            if (this.maze.canWalk(this.xs[i], this.ys[i], this.xs[i] + 1, this.ys[i])) {
+                open += 1;
+            }
+        }
+        return open;
+    }
+
+    // sweeps both wall checks over random cells
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int walls() {
+        int walls = 0;
+        for (int i = 0; i < QUERIES; i += 1) {
+            if (this.maze.addRightWall(this.xs[i], this.ys[i])) {
+                walls += 1;
+            }
+
+            if (this.maze.addDownWall(this.xs[i], this.ys[i])) {
+                walls += 1;
+            }
+        }
+        return walls;
+    }
+
+    // answers distance queries between random cells from the path index
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int distance() {
+        int sum = 0;
+        for (int i = 0; i < QUERIES; i += 1) {
+            sum += this.maze.distance(this.from[i], this.to[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,76 @@
+package maze;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// the two halves of Kruskal's algorithm on their own: putting the walls in
+// a random order, which initWorkList once did, and opening them into a
+// tree, which makeTree once did
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class KruskalBenchmark {
+    @Param({"100", "1000"})
+    int side;
+
+    KruskalGenerator kruskal;
+    SplittableRandom rand;
+    int[] edges;
+    int[] shuffled;
+    UnionFind sets;
+
+    @Setup
+    public void setUp() {
+        this.kruskal = new KruskalGenerator();
+        this.rand = new SplittableRandom(1);
+        MazeGrid grid = new MazeGrid(this.side, this.side);
+        this.edges = new int[grid.edgeCount()];
+        int next = 0;
+        for (int cell = 0; cell < grid.size(); cell += 1) {
+            if (cell % this.side < this.side - 1) {
+                this.edges[next] = cell * 2;
+                next += 1;
+            }
+
+            if (cell + this.side < grid.size()) {
+                this.edges[next] = cell * 2 + 1;
+                next += 1;
+            }
+        }
+        this.shuffled = this.edges.clone();
+        this.kruskal.shuffle(this.shuffled, this.rand);
+        this.sets = new UnionFind(grid.size());
+    }
+
+    // shuffles every edge of the grid
+    @Benchmark
+    public int[] shuffle() {
+        this.kruskal.shuffle(this.edges, this.rand);
+        return this.edges;
+    }
+
+    // joins already shuffled edges into a spanning tree, on a fresh grid and
+    // freshly reset sets
+    @Benchmark
+    public MazeGrid join() {
+        MazeGrid grid = new MazeGrid(this.side, this.side);
+        this.sets.reset();
+        this.kruskal.join(grid, this.sets, this.shuffled, grid.size() - 1);
+        return grid;
+    }
+}
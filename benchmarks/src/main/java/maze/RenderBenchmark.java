@@ -0,0 +1,70 @@
+package maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import javalib.impworld.WorldScene;
+
+// draws frames of a side x side maze at a given cell size: a steady frame,
+// where player 1 takes a step and a breadth first search runs a tick, and a
+// repaint of the whole window, as after a scroll or zoom
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class RenderBenchmark {
+    static final String[] KEYS = {"right", "down", "left", "up"};
+
+    @Param({"100", "2000"})
+    int side;
+
+    @Param({"1", "10"})
+    int cellSize;
+
+    Maze maze;
+    int frame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.maze = new Maze(this.side, this.side, 1);
+        this.maze.cellSize = this.cellSize;
+        this.maze.makeScene();
+    }
+
+    // EFFECT: starts the search over, so every iteration has one running
+    // rather than only the first few
+    @Setup(Level.Iteration)
+    public void restartSearch() {
+        this.maze.searches.clear();
+        this.maze.solutions.clear();
+        this.maze.onKeyEvent("k");
+        this.frame = 0;
+    }
+
+    @Benchmark
+    public WorldScene frame() {
+        this.frame += 1;
+        this.maze.onKeyEvent(KEYS[this.frame % 4]);
+        this.maze.onTick();
+        return this.maze.makeScene();
+    }
+
+    @Benchmark
+    public WorldScene repaint() {
+        this.maze.repaintAll = true;
+        return this.maze.makeScene();
+    }
+}
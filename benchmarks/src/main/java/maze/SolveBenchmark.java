@@ -0,0 +1,47 @@
+package maze;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// solves one side x side maze corner to corner with each search, the ones
+// j, k, l and h start
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class SolveBenchmark {
+    @Param({"100", "1000"})
+    int side;
+
+    @Param({"depth first", "breadth first", "a*", "bidirectional"})
+    String solver;
+
+    MazeGrid grid;
+
+    @Setup
+    public void setUp() {
+        this.grid = new KruskalGenerator().generate(this.side, this.side, 1);
+    }
+
+    // a fresh search each time, as the solution cache would otherwise
+    // answer every call after the first
+    @Benchmark
+    public int[] solve() {
+        ASearch search = new Engines().solver(this.solver, this.grid, 0, this.grid.size() - 1);
+        search.run();
+        return search.solution();
+    }
+}
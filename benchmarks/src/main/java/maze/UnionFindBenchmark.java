@@ -0,0 +1,128 @@
+package maze;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// find and union on their own, over random cells, reported per operation
+// each has its own state, so neither pays for the other's setup
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class UnionFindBenchmark {
+    // operations per invocation
+    static final int BATCH = 1 << 16;
+
+    // a forest half joined up by random unions, so finds have trees to
+    // climb, and the cells to look up in it
+    @State(Scope.Thread)
+    public static class Forest {
+        @Param({"10000", "1000000"})
+        int size;
+
+        UnionFind joined;
+        // the parents as the unions left them, before any find halved a path
+        int[] built;
+        int[] cells;
+
+        @Setup(Level.Trial)
+        public void build() {
+            SplittableRandom rand = new SplittableRandom(1);
+            this.joined = new UnionFind(this.size);
+            for (int i = 0; i < this.size / 2; i += 1) {
+                this.joined.union(rand.nextInt(this.size), rand.nextInt(this.size));
+            }
+            this.built = this.joined.parent.clone();
+            this.cells = new int[BATCH];
+            for (int i = 0; i < BATCH; i += 1) {
+                this.cells[i] = rand.nextInt(this.size);
+            }
+        }
+
+        // EFFECT: puts back the paths the last iteration's finds halved, so
+        // every iteration starts from the same trees
+        @Setup(Level.Iteration)
+        public void restore() {
+            System.arraycopy(this.built, 0, this.joined.parent, 0, this.size);
+        }
+    }
+
+    // random pairs of cells, two for every cell as in a Kruskal run, and the
+    // sets they are joined into
+    @State(Scope.Thread)
+    public static class Pairs {
+        @Param({"10000", "1000000"})
+        int size;
+
+        UnionFind sets;
+        int[] from;
+        int[] to;
+        // the first pair of the next batch
+        int next;
+
+        @Setup(Level.Trial)
+        public void build() {
+            SplittableRandom rand = new SplittableRandom(1);
+            int pairs = (2 * this.size + BATCH - 1) / BATCH * BATCH;
+            this.from = new int[pairs];
+            this.to = new int[pairs];
+            for (int i = 0; i < pairs; i += 1) {
+                this.from[i] = rand.nextInt(this.size);
+                this.to[i] = rand.nextInt(this.size);
+            }
+            this.sets = new UnionFind(this.size);
+        }
+
+        // EFFECT: starts the sets over from the first pair
+        @Setup(Level.Iteration)
+        public void restart() {
+            this.sets.reset();
+            this.next = 0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int find(Forest forest) {
+        int sum = 0;
+        for (int i = 0; i < BATCH; i += 1) {
+            sum += forest.joined.find(forest.cells[i]);
+        }
+        return sum;
+    }
+
+    // goes through the pairs a batch at a time, starting the sets over once
+    // they run out, one reset for every 2 * size unions
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int union(Pairs pairs) {
+        if (pairs.next == pairs.from.length) {
+            pairs.sets.reset();
+            pairs.next = 0;
+        }
+        int joins = 0;
+        int end = pairs.next + BATCH;
+        for (int i = pairs.next; i < end; i += 1) {
+            if (pairs.sets.union(pairs.from[i], pairs.to[i])) {
+                joins += 1;
+            }
+        }
+        pairs.next = end;
+        return joins;
+    }
+}